@@ -0,0 +1,116 @@
+package Benchmarks;
+
+import Model.GameModel;
+import Model.GameSnapshot;
+import Model.IMaze;
+import Model.Senses;
+import Model.WinnabilityChecker;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gameplay hot paths: board setup, moves, shots, senses and winnability.
+ *
+ * The move and shoot benchmarks bounce between two adjacent caves that have
+ * no hazard, so the game never ends during a measurement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameModelBenchmark {
+    @Param({"20", "1000"})
+    public int numCaves;
+
+    private GameModel model;
+    private int homeCave;
+    private int awayCave;
+    private boolean atHome;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        model = new GameModel(new Random(42));
+        model.setListenersEnabled(false);
+        model.setHistoryEnabled(false);
+
+        // Retry until the player starts next to a hazard-free cave
+        do {
+            model.initialize(numCaves, Math.max(2, numCaves / 10), Math.max(2, numCaves / 10), Integer.MAX_VALUE);
+            homeCave = model.getPlayer().getCurrentCave().getId();
+            awayCave = findEmptyNeighbor(model.getMaze(), homeCave);
+        } while (awayCave < 0);
+        atHome = true;
+    }
+
+    private static int findEmptyNeighbor(IMaze maze, int caveId) {
+        for (int i = 0; i < maze.getNeighborCount(caveId); i++) {
+            int neighbor = maze.getNeighbor(caveId, i);
+            if (!maze.isDangerous(neighbor) && !maze.hasBat(neighbor)) {
+                return neighbor;
+            }
+        }
+        return -1;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public GameModel initialize() {
+        GameModel fresh = new GameModel(new Random(7));
+        fresh.setListenersEnabled(false);
+        fresh.initialize(numCaves, Math.max(2, numCaves / 10), Math.max(2, numCaves / 10), 3);
+        return fresh;
+    }
+
+    @Benchmark
+    public boolean movePlayer() {
+        atHome = !atHome;
+        return model.movePlayer(atHome ? homeCave : awayCave);
+    }
+
+    @Benchmark
+    public boolean shootArrow() {
+        // Always a miss, the player has effectively unlimited arrows
+        return model.shootArrow(atHome ? awayCave : homeCave);
+    }
+
+    @Benchmark
+    public boolean canSmellWumpus() {
+        return model.canSmellWumpus();
+    }
+
+    @Benchmark
+    public boolean canFeelDraft() {
+        return model.canFeelDraft();
+    }
+
+    @Benchmark
+    public boolean canHearBats() {
+        return model.canHearBats();
+    }
+
+    @Benchmark
+    public Senses senses() {
+        return model.senses();
+    }
+
+    @Benchmark
+    public GameSnapshot snapshotAndRestore() {
+        GameSnapshot snapshot = model.snapshot();
+        model.restore(snapshot);
+        return snapshot;
+    }
+
+    @Benchmark
+    public boolean isWinnable() {
+        return model.isWinnable();
+    }
+
+    @Benchmark
+    public boolean winnabilityChecker() {
+        return WinnabilityChecker.isGameWinnable(model);
+    }
+}
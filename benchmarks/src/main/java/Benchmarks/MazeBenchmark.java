@@ -0,0 +1,33 @@
+package Benchmarks;
+
+import Model.Maze;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building a maze of n caves.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MazeBenchmark {
+    @Param({"20", "1000", "100000", "1000000"})
+    public int numCaves;
+
+    private Random random;
+
+    @Setup
+    public void setup() {
+        random = new Random(42);
+    }
+
+    @Benchmark
+    public Maze newMaze() {
+        return new Maze(numCaves, random);
+    }
+}
@@ -0,0 +1,63 @@
+package Model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Replays logged games, including ones with undos and moving hazards, into
+ * fresh models and checks they end the same way.
+ */
+class ActionLogTest {
+    @Test
+    void replayReachesTheSameState() throws IOException {
+        Random random = new Random(11);
+        for (int game = 0; game < 200; game++) {
+            int numCaves = game % 2 == 0 ? 20 : 200;
+            GameModel model = new GameModel(new GameRandom(random.nextLong()));
+            model.setMovingHazards(game % 4 < 2);
+            model.setListenersEnabled(false);
+            model.initialize(numCaves, numCaves / 8, numCaves / 10, 5);
+
+            for (int turn = 0; turn < 100 && !model.isGameOver(); turn++) {
+                IMaze maze = model.getMaze();
+                int here = model.getPlayer().getCurrentCave().getId();
+                int next = maze.getNeighbor(here, random.nextInt(maze.getNeighborCount(here)));
+                if (random.nextInt(4) == 0) {
+                    model.shootArrow(next);
+                } else {
+                    model.movePlayer(next);
+                }
+                if (random.nextInt(10) == 0 && model.canUndo()) {
+                    model.undo();
+                }
+            }
+
+            ActionLog log = model.getActionLog().copy();
+            assertReplays(log, model, "game " + game);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            log.writeTo(out);
+            ActionLog read = ActionLog.readFrom(new ByteArrayInputStream(out.toByteArray()));
+            assertEquals(log.size(), read.size());
+            assertReplays(read, model, "game " + game + " read back");
+        }
+    }
+
+    private static void assertReplays(ActionLog log, GameModel expected, String context) {
+        GameModel replayed = new GameModel();
+        replayed.setListenersEnabled(false);
+        replayed.setHistoryEnabled(false);
+        assertEquals(log.size(), log.replay(replayed), context);
+        assertEquals(expected.getOutcome(), replayed.getOutcome(), context);
+        assertEquals(expected.getPlayer().getCurrentCave().getId(),
+                replayed.getPlayer().getCurrentCave().getId(), context);
+        assertEquals(expected.getPlayer().getArrows(), replayed.getPlayer().getArrows(), context);
+        assertEquals(expected.snapshot().getWumpusCaveId(), replayed.snapshot().getWumpusCaveId(), context);
+    }
+}
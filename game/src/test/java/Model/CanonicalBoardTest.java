@@ -0,0 +1,81 @@
+package Model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Renumbers the caves of boards at random and checks the canonical form does
+ * not change, for every topology small enough to be canonically labeled.
+ */
+class CanonicalBoardTest {
+    @Test
+    void relabeledBoardsHaveEqualForms() {
+        Random random = new Random(7);
+        for (int numCaves : new int[]{15, 20, 30, 64}) {
+            Topology topology = Topology.of(numCaves);
+            // Each relabeled topology is labeled from scratch, which dominates the time
+            for (int trial = 0; trial < (numCaves > 30 ? 100 : 500); trial++) {
+                int[] perm = shuffled(numCaves, random);
+                Topology relabeled = relabel(topology, perm);
+
+                int numHazards = 1 + random.nextInt(6);
+                int[] caves = shuffled(numCaves, random);
+                int[] entries = new int[numHazards];
+                int[] relabeledEntries = new int[numHazards];
+                for (int i = 0; i < numHazards; i++) {
+                    int mask = 1 << random.nextInt(3);
+                    entries[i] = caves[i] << 3 | mask;
+                    relabeledEntries[i] = perm[caves[i]] << 3 | mask;
+                }
+                int player = caves[numHazards];
+
+                CanonicalBoard form = CanonicalBoard.of(topology, entries, player);
+                CanonicalBoard relabeledForm = CanonicalBoard.of(relabeled, relabeledEntries, perm[player]);
+                String context = numCaves + " caves, trial " + trial;
+                assertEquals(form, relabeledForm, context);
+                assertEquals(form.hashCode(), relabeledForm.hashCode(), context);
+                assertEquals(form.toCanonical(player), relabeledForm.toCanonical(perm[player]), context);
+                for (int caveId = 0; caveId < numCaves; caveId++) {
+                    assertEquals(caveId, form.fromCanonical(form.toCanonical(caveId)), context);
+                }
+            }
+        }
+    }
+
+    private static int[] shuffled(int n, Random random) {
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+        return values;
+    }
+
+    // The same layout with cave c renumbered perm[c]
+    private static Topology relabel(Topology topology, int[] perm) {
+        int n = perm.length;
+        int[] inverse = new int[n];
+        for (int i = 0; i < n; i++) {
+            inverse[perm[i]] = i;
+        }
+        int[] offsets = new int[n + 1];
+        for (int caveId = 0; caveId < n; caveId++) {
+            offsets[caveId + 1] = offsets[caveId] + topology.getNeighborCount(inverse[caveId]);
+        }
+        int[] targets = new int[offsets[n]];
+        for (int caveId = 0; caveId < n; caveId++) {
+            for (int i = 0; i < topology.getNeighborCount(inverse[caveId]); i++) {
+                targets[offsets[caveId] + i] = perm[topology.getNeighbor(inverse[caveId], i)];
+            }
+        }
+        return Topology.adopt(offsets, targets);
+    }
+}
@@ -0,0 +1,94 @@
+package Model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Round-trips games through save files and checks damaged or inconsistent
+ * files are refused.
+ */
+class GameFileTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void savedGameLoadsBackUnchanged() throws IOException {
+        Random random = new Random(5);
+        for (int numCaves : new int[]{20, 30, 500}) {
+            GameModel model = new GameModel(new GameRandom(numCaves));
+            model.setListenersEnabled(false);
+            model.initialize(numCaves, numCaves / 8, numCaves / 10, 3);
+            // Play a little so the save is not just a fresh board
+            for (int turn = 0; turn < 5 && !model.isGameOver(); turn++) {
+                int here = model.getPlayer().getCurrentCave().getId();
+                IMaze maze = model.getMaze();
+                model.movePlayer(maze.getNeighbor(here, random.nextInt(maze.getNeighborCount(here))));
+            }
+
+            GameSnapshot saved = model.snapshot();
+            Path path = dir.resolve("game" + numCaves + ".wump");
+            GameFile.save(saved, path);
+            GameSnapshot loaded = GameFile.load(path);
+
+            assertEquals(saved.getPlayerCaveId(), loaded.getPlayerCaveId());
+            assertEquals(saved.getWumpusCaveId(), loaded.getWumpusCaveId());
+            assertEquals(saved.getArrows(), loaded.getArrows());
+            assertEquals(saved.getOutcome(), loaded.getOutcome());
+            for (int caveId = 0; caveId < numCaves; caveId++) {
+                assertEquals(saved.getMaze().getNeighborCount(caveId), loaded.getMaze().getNeighborCount(caveId));
+                for (int i = 0; i < saved.getMaze().getNeighborCount(caveId); i++) {
+                    assertEquals(saved.getMaze().getNeighbor(caveId, i), loaded.getMaze().getNeighbor(caveId, i));
+                }
+            }
+            for (int hazard : new int[]{HazardLayers.WUMPUS, HazardLayers.PIT, HazardLayers.BAT}) {
+                assertEquals(saved.getHazards().toBitSet(hazard), loaded.getHazards().toBitSet(hazard));
+            }
+
+            // The loaded game plays on from the same place
+            GameModel resumed = new GameModel(new GameRandom(1));
+            resumed.setListenersEnabled(false);
+            resumed.initialize(loaded);
+            assertEquals(model.getPlayer().getCurrentCave().getId(), resumed.getPlayer().getCurrentCave().getId());
+            assertEquals(model.isWinnable(), resumed.isWinnable());
+        }
+    }
+
+    @Test
+    void rejectsSecondWumpus() throws IOException {
+        GameModel model = new GameModel(new GameRandom(3));
+        model.setListenersEnabled(false);
+        model.initialize(20, 2, 2, 3);
+        Maze maze = (Maze) model.getMaze();
+        maze.setWumpus(maze.getRandomEmptyCave().getId(), true);
+
+        Path path = dir.resolve("two-wumpus.wump");
+        GameFile.save(model.snapshot(), path);
+        IOException e = assertThrows(IOException.class, () -> GameFile.load(path));
+        assertEquals("Corrupt save file, bad game state: " + path, e.getMessage());
+    }
+
+    @Test
+    void rejectsDamagedFile() throws IOException {
+        GameModel model = new GameModel(new GameRandom(4));
+        model.setListenersEnabled(false);
+        model.initialize(20, 2, 2, 3);
+        Path path = dir.resolve("damaged.wump");
+        GameFile.save(model.snapshot(), path);
+
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(path, bytes);
+        assertThrows(IOException.class, () -> GameFile.load(path));
+
+        Files.write(path, new byte[]{1, 2, 3});
+        assertThrows(IOException.class, () -> GameFile.load(path));
+    }
+}
@@ -0,0 +1,78 @@
+package Model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the sense masks and free-cave pool Maze keeps up to date against a
+ * plain array of hazards, through random edits and hazard restores.
+ */
+class MazeTest {
+    private static final int WUMPUS = HazardLayers.WUMPUS;
+    private static final int PIT = HazardLayers.PIT;
+    private static final int BAT = HazardLayers.BAT;
+
+    @Test
+    void senseMasksAndFreeCavesFollowHazardEdits() {
+        Random random = new Random(1);
+        for (int trial = 0; trial < 100; trial++) {
+            int numCaves = 20 + random.nextInt(2000);
+            Maze maze = new Maze(numCaves, new GameRandom(trial));
+            int[] expected = new int[numCaves];
+            List<HazardLayers> snapshots = new ArrayList<>();
+            List<int[]> snapshotExpected = new ArrayList<>();
+
+            for (int op = 0; op < 5000; op++) {
+                // Mostly edit a small range, so hazards pile up and get removed again
+                int caveId = random.nextInt(random.nextBoolean() ? Math.min(numCaves, 64) : numCaves);
+                int hazard = new int[]{WUMPUS, PIT, BAT}[random.nextInt(3)];
+                boolean on = random.nextInt(3) != 0;
+                if (hazard == WUMPUS) {
+                    maze.setWumpus(caveId, on);
+                } else if (hazard == PIT) {
+                    maze.setPit(caveId, on);
+                } else {
+                    maze.setBat(caveId, on);
+                }
+                expected[caveId] = on ? expected[caveId] | hazard : expected[caveId] & ~hazard;
+
+                if (random.nextInt(100) == 0) {
+                    snapshots.add(maze.snapshotHazards());
+                    snapshotExpected.add(expected.clone());
+                }
+                if (random.nextInt(300) == 0 && !snapshots.isEmpty()) {
+                    int k = random.nextInt(snapshots.size());
+                    maze.restoreHazards(snapshots.get(k));
+                    expected = snapshotExpected.get(k).clone();
+                }
+            }
+
+            int occupied = 0;
+            for (int caveId = 0; caveId < numCaves; caveId++) {
+                int mask = 0;
+                for (int i = 0; i < maze.getNeighborCount(caveId); i++) {
+                    mask |= expected[maze.getNeighbor(caveId, i)];
+                }
+                String context = "trial " + trial + ", cave " + caveId;
+                assertEquals(mask, maze.getSenseMask(caveId), context);
+                assertEquals((expected[caveId] & WUMPUS) != 0, maze.hasWumpus(caveId), context);
+                assertEquals((expected[caveId] & PIT) != 0, maze.hasPit(caveId), context);
+                assertEquals((expected[caveId] & BAT) != 0, maze.hasBat(caveId), context);
+                if (expected[caveId] != 0) {
+                    occupied++;
+                }
+            }
+            assertEquals(numCaves - occupied, maze.getEmptyCaveCount(), "trial " + trial);
+            if (occupied < numCaves) {
+                for (int i = 0; i < 50; i++) {
+                    assertEquals(0, expected[maze.getRandomEmptyCave().getId()], "trial " + trial);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package Model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the safe regions GameModel patches after each move, shot and undo
+ * against a full recomputation, with the Wumpus and bats moving around.
+ */
+class SafeRegionsTest {
+    @Test
+    void patchedRegionsMatchFullRecomputation() {
+        Random random = new Random(9);
+        int compared = 0;
+        for (int numCaves : new int[]{20, 30, 200, 5000}) {
+            for (int game = 0; game < (numCaves > 1000 ? 10 : 100); game++) {
+                GameModel model = new GameModel(new GameRandom(random.nextLong()));
+                model.setMovingHazards(true);
+                model.setListenersEnabled(false);
+                model.initialize(numCaves, Math.max(1, numCaves / 8), Math.max(1, numCaves / 10), 50);
+
+                for (int turn = 0; turn < 200 && !model.isGameOver(); turn++) {
+                    IMaze maze = model.getMaze();
+                    int here = model.getPlayer().getCurrentCave().getId();
+                    int next = maze.getNeighbor(here, random.nextInt(maze.getNeighborCount(here)));
+                    if (random.nextInt(3) == 0) {
+                        model.shootArrow(next);
+                    } else {
+                        model.movePlayer(next);
+                    }
+                    if (random.nextInt(20) == 0 && model.canUndo()) {
+                        model.undo();
+                    }
+
+                    String context = numCaves + " caves, game " + game + ", turn " + turn;
+                    assertEquals(WinnabilityChecker.isGameWinnable(model), model.isWinnable(), context);
+                    // A cached answer for an equivalent board leaves the regions stale
+                    SafeRegions patched = model.getFreshSafeRegions();
+                    if (patched != null) {
+                        assertSamePartition(patched, SafeRegions.compute(model.getMaze()), model.getMaze(), context);
+                        compared++;
+                    }
+                }
+            }
+        }
+        assertTrue(compared > 1000, "only " + compared + " patched partitions compared");
+    }
+
+    // Region ids may differ; the partition of safe caves must not
+    private static void assertSamePartition(SafeRegions patched, SafeRegions full, IMaze maze, String context) {
+        Map<Integer, Integer> forward = new HashMap<>();
+        Map<Integer, Integer> backward = new HashMap<>();
+        for (int caveId = 0; caveId < maze.getCaveCount(); caveId++) {
+            int a = patched.getRegion(caveId);
+            int b = full.getRegion(caveId);
+            assertEquals(b < 0, a < 0, context + ", cave " + caveId);
+            if (a >= 0) {
+                assertEquals(b, (int) forward.computeIfAbsent(a, k -> b), context + ", cave " + caveId);
+                assertEquals(a, (int) backward.computeIfAbsent(b, k -> a), context + ", cave " + caveId);
+            }
+        }
+    }
+}
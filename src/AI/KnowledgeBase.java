@@ -0,0 +1,207 @@
+package AI;
+
+import Model.IMaze;
+import Model.Senses;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * What a player can deduce about hazard locations from the maze layout, the
+ * caves it has visited and what it sensed in them. Nothing here reads the
+ * maze's actual hazard layers.
+ */
+public class KnowledgeBase {
+    private final IMaze maze;
+    private final BitSet visited;
+    private final BitSet noPit;
+    private final BitSet knownPits;
+    private final BitSet drafty;
+    private final BitSet wumpusCandidates;
+    private final BitSet scratch;
+
+    // Visited caves where a draft was felt
+    private int[] draftyCaves;
+    private int draftyCount;
+
+    public KnowledgeBase(IMaze maze) {
+        this.maze = maze;
+        int numCaves = maze.getCaveCount();
+        visited = new BitSet(numCaves);
+        noPit = new BitSet(numCaves);
+        knownPits = new BitSet(numCaves);
+        drafty = new BitSet(numCaves);
+        wumpusCandidates = new BitSet(numCaves);
+        wumpusCandidates.set(0, numCaves);
+        scratch = new BitSet(numCaves);
+        draftyCaves = new int[16];
+    }
+
+    public IMaze getMaze() {
+        return maze;
+    }
+
+    /**
+     * Records that the player is alive in a cave and sensed the given things.
+     */
+    public void observe(int caveId, Senses senses) {
+        // Standing here means this cave has neither a pit nor the Wumpus
+        noPit.set(caveId);
+        wumpusCandidates.clear(caveId);
+
+        if (visited.get(caveId)) {
+            return;
+        }
+        visited.set(caveId);
+
+        if (senses.feelsDraft()) {
+            drafty.set(caveId);
+            if (draftyCount == draftyCaves.length) {
+                draftyCaves = Arrays.copyOf(draftyCaves, draftyCount * 2);
+            }
+            draftyCaves[draftyCount++] = caveId;
+        } else {
+            for (int i = 0; i < maze.getNeighborCount(caveId); i++) {
+                noPit.set(maze.getNeighbor(caveId, i));
+            }
+        }
+
+        if (senses.smellsWumpus()) {
+            // The Wumpus is one of this cave's neighbors
+            scratch.clear();
+            for (int i = 0; i < maze.getNeighborCount(caveId); i++) {
+                scratch.set(maze.getNeighbor(caveId, i));
+            }
+            wumpusCandidates.and(scratch);
+        } else {
+            for (int i = 0; i < maze.getNeighborCount(caveId); i++) {
+                wumpusCandidates.clear(maze.getNeighbor(caveId, i));
+            }
+        }
+
+        inferPits();
+    }
+
+    /**
+     * Records an arrow that missed, so the target cannot hold the Wumpus.
+     */
+    public void recordMiss(int caveId) {
+        wumpusCandidates.clear(caveId);
+    }
+
+    /**
+     * Records that the Wumpus moved one cave or stayed put, so it may now be
+     * next to any cave it could have been in.
+     */
+    public void wumpusMoved() {
+        scratch.clear();
+        for (int caveId = wumpusCandidates.nextSetBit(0); caveId >= 0;
+             caveId = wumpusCandidates.nextSetBit(caveId + 1)) {
+            for (int i = 0; i < maze.getNeighborCount(caveId); i++) {
+                scratch.set(maze.getNeighbor(caveId, i));
+            }
+        }
+        wumpusCandidates.or(scratch);
+    }
+
+    /**
+     * A drafty cave with exactly one neighbor that may still hold a pit pins it down.
+     */
+    private void inferPits() {
+        for (int d = 0; d < draftyCount; d++) {
+            int caveId = draftyCaves[d];
+            int possible = -1;
+            int count = 0;
+            for (int i = 0; i < maze.getNeighborCount(caveId); i++) {
+                int neighbor = maze.getNeighbor(caveId, i);
+                if (!noPit.get(neighbor)) {
+                    possible = neighbor;
+                    count++;
+                }
+            }
+            if (count == 1) {
+                knownPits.set(possible);
+            }
+        }
+    }
+
+    public boolean isVisited(int caveId) {
+        return visited.get(caveId);
+    }
+
+    /**
+     * @return true if the cave is known to hold neither a pit nor the Wumpus
+     */
+    public boolean isSafe(int caveId) {
+        return noPit.get(caveId) && !wumpusCandidates.get(caveId);
+    }
+
+    public boolean isKnownHazard(int caveId) {
+        return knownPits.get(caveId) || getKnownWumpus() == caveId;
+    }
+
+    public boolean isWumpusCandidate(int caveId) {
+        return wumpusCandidates.get(caveId);
+    }
+
+    public int getWumpusCandidateCount() {
+        return wumpusCandidates.cardinality();
+    }
+
+    /**
+     * @return The Wumpus cave if it has been deduced, or -1
+     */
+    public int getKnownWumpus() {
+        int first = wumpusCandidates.nextSetBit(0);
+        if (first >= 0 && wumpusCandidates.nextSetBit(first + 1) < 0) {
+            return first;
+        }
+        return -1;
+    }
+
+    /**
+     * Estimates the chance that entering a cave is fatal. Pit risk comes from
+     * the drafty visited neighbors, Wumpus risk from the remaining candidates.
+     * Only reads the knowledge base, so it is safe to call from several threads.
+     *
+     * @param caveId The cave to evaluate
+     * @param wumpusCandidateCount Current number of Wumpus candidates
+     * @return A risk estimate between 0 and 1
+     */
+    public double risk(int caveId, int wumpusCandidateCount) {
+        if (knownPits.get(caveId)) {
+            return 1.0;
+        }
+
+        double pitRisk = 0.0;
+        if (!noPit.get(caveId)) {
+            for (int i = 0; i < maze.getNeighborCount(caveId); i++) {
+                int neighbor = maze.getNeighbor(caveId, i);
+                if (drafty.get(neighbor)) {
+                    pitRisk = Math.max(pitRisk, 1.0 / possiblePitNeighbors(neighbor));
+                }
+            }
+            if (pitRisk == 0.0) {
+                // No evidence either way
+                pitRisk = 0.5;
+            }
+        }
+
+        double wumpusRisk = 0.0;
+        if (wumpusCandidates.get(caveId) && wumpusCandidateCount > 0) {
+            wumpusRisk = 1.0 / wumpusCandidateCount;
+        }
+
+        return 1.0 - (1.0 - pitRisk) * (1.0 - wumpusRisk);
+    }
+
+    private int possiblePitNeighbors(int caveId) {
+        int count = 0;
+        for (int i = 0; i < maze.getNeighborCount(caveId); i++) {
+            if (!noPit.get(maze.getNeighbor(caveId, i))) {
+                count++;
+            }
+        }
+        return Math.max(1, count);
+    }
+}
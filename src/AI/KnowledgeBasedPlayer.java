@@ -0,0 +1,231 @@
+package AI;
+
+import Model.IGameModel;
+import Model.IMaze;
+import Simulation.PlayerPolicy;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Automated player that only uses what a human sees: the maze layout, the
+ * caves it has visited and the senses reported by the model.
+ *
+ * Each turn it updates its knowledge base, then in order of preference:
+ * shoots a deduced Wumpus, walks towards one, walks to the nearest cave
+ * known to be safe, or takes the least risky unexplored cave next to the
+ * known-safe region. Risky candidates are scored in parallel on a fork-join
+ * pool once there are enough of them to be worth it.
+ */
+public class KnowledgeBasedPlayer implements PlayerPolicy {
+    // Below this many candidates, scoring them in parallel costs more than it saves
+    private static final int PARALLEL_THRESHOLD = 512;
+
+    private final ForkJoinPool pool;
+    private KnowledgeBase knowledge;
+    private int lastShot = -1;
+
+    // Search buffers, reused between turns
+    private int[] parent;
+    private int[] queue;
+    private int[] frontier;
+
+    public KnowledgeBasedPlayer() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public KnowledgeBasedPlayer(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void reset(long seed) {
+        // Decisions are deterministic, only the knowledge needs clearing
+        knowledge = null;
+        lastShot = -1;
+    }
+
+    /**
+     * Plays one turn on the model.
+     *
+     * @return false if the game is already over or the action was rejected
+     */
+    public boolean playTurn(IGameModel model) {
+        if (model.isGameOver()) {
+            return false;
+        }
+        int action = chooseAction(model);
+        return PlayerPolicy.isShot(action)
+                ? model.shootArrow(PlayerPolicy.targetOf(action))
+                : model.movePlayer(PlayerPolicy.targetOf(action));
+    }
+
+    @Override
+    public int chooseAction(IGameModel model) {
+        IMaze maze = model.getMaze();
+        if (knowledge == null || knowledge.getMaze() != maze) {
+            knowledge = new KnowledgeBase(maze);
+            lastShot = -1;
+            int numCaves = maze.getCaveCount();
+            parent = new int[numCaves];
+            queue = new int[numCaves];
+            frontier = new int[numCaves];
+        }
+
+        // Still playing after a shot means it missed
+        if (lastShot >= 0) {
+            knowledge.recordMiss(lastShot);
+            lastShot = -1;
+        }
+
+        int current = model.getPlayer().getCurrentCave().getId();
+        knowledge.observe(current, model.senses());
+
+        int arrows = model.getPlayer().getArrows();
+        int wumpus = knowledge.getKnownWumpus();
+
+        // Shoot a deduced Wumpus, or guess when every candidate is adjacent and arrows allow
+        if (wumpus >= 0 && maze.areAdjacent(current, wumpus)) {
+            return shoot(wumpus);
+        }
+        int adjacentGuess = adjacentCandidateIfAllAdjacent(maze, current);
+        if (adjacentGuess >= 0 && arrows > 1) {
+            return shoot(adjacentGuess);
+        }
+
+        int frontierCount = searchSafeRegion(maze, current);
+
+        // Walk to a cave next to a deduced Wumpus
+        if (wumpus >= 0) {
+            int step = stepTowardsNeighborOf(maze, current, wumpus);
+            if (step >= 0) {
+                return PlayerPolicy.move(step);
+            }
+        }
+
+        // Walk to the nearest unvisited cave known to be safe
+        for (int i = 0; i < frontierCount; i++) {
+            int caveId = frontier[i];
+            if (knowledge.isSafe(caveId)) {
+                return PlayerPolicy.move(firstStep(current, caveId));
+            }
+        }
+
+        // Nothing is certainly safe: take the least risky frontier cave
+        int best = leastRisky(frontierCount);
+        if (best >= 0) {
+            return PlayerPolicy.move(firstStep(current, best));
+        }
+
+        // Boxed in by known hazards: shoot at a candidate if possible, else step anywhere
+        for (int i = 0; i < maze.getNeighborCount(current); i++) {
+            int neighbor = maze.getNeighbor(current, i);
+            if (knowledge.isWumpusCandidate(neighbor)) {
+                return shoot(neighbor);
+            }
+        }
+        return PlayerPolicy.move(maze.getNeighbor(current, 0));
+    }
+
+    private int shoot(int caveId) {
+        lastShot = caveId;
+        return PlayerPolicy.shoot(caveId);
+    }
+
+    private int adjacentCandidateIfAllAdjacent(IMaze maze, int current) {
+        int candidates = knowledge.getWumpusCandidateCount();
+        int adjacent = -1;
+        int adjacentCount = 0;
+        for (int i = 0; i < maze.getNeighborCount(current); i++) {
+            int neighbor = maze.getNeighbor(current, i);
+            if (knowledge.isWumpusCandidate(neighbor)) {
+                if (adjacent < 0) {
+                    adjacent = neighbor;
+                }
+                adjacentCount++;
+            }
+        }
+        return adjacentCount > 0 && adjacentCount == candidates ? adjacent : -1;
+    }
+
+    /**
+     * Breadth-first search through caves known to be safe. Fills parent[] for
+     * every cave reached and collects the unvisited caves reached, in order of
+     * distance, into frontier[]. Unvisited caves are entered but not expanded.
+     *
+     * @return The number of frontier caves
+     */
+    private int searchSafeRegion(IMaze maze, int start) {
+        Arrays.fill(parent, -2);
+        int head = 0;
+        int tail = 0;
+        int frontierCount = 0;
+
+        queue[tail++] = start;
+        parent[start] = -1;
+
+        while (head < tail) {
+            int current = queue[head++];
+
+            for (int i = 0; i < maze.getNeighborCount(current); i++) {
+                int neighbor = maze.getNeighbor(current, i);
+                if (parent[neighbor] != -2 || knowledge.isKnownHazard(neighbor)) {
+                    continue;
+                }
+                parent[neighbor] = current;
+
+                if (knowledge.isVisited(neighbor)) {
+                    queue[tail++] = neighbor;
+                } else {
+                    frontier[frontierCount++] = neighbor;
+                }
+            }
+        }
+        return frontierCount;
+    }
+
+    private int stepTowardsNeighborOf(IMaze maze, int current, int wumpus) {
+        for (int i = 0; i < maze.getNeighborCount(wumpus); i++) {
+            int neighbor = maze.getNeighbor(wumpus, i);
+            if (parent[neighbor] != -2 && neighbor != current && knowledge.isSafe(neighbor)) {
+                return firstStep(current, neighbor);
+            }
+        }
+        return -1;
+    }
+
+    private int firstStep(int start, int target) {
+        int step = target;
+        while (parent[step] != start) {
+            step = parent[step];
+        }
+        return step;
+    }
+
+    private int leastRisky(int frontierCount) {
+        if (frontierCount == 0) {
+            return -1;
+        }
+
+        int candidates = knowledge.getWumpusCandidateCount();
+        double[] risks = new double[frontierCount];
+        if (frontierCount >= PARALLEL_THRESHOLD) {
+            pool.submit(() -> IntStream.range(0, frontierCount).parallel()
+                    .forEach(i -> risks[i] = knowledge.risk(frontier[i], candidates))).join();
+        } else {
+            for (int i = 0; i < frontierCount; i++) {
+                risks[i] = knowledge.risk(frontier[i], candidates);
+            }
+        }
+
+        // Ties go to the closest cave, which comes first in the frontier
+        int best = 0;
+        for (int i = 1; i < frontierCount; i++) {
+            if (risks[i] < risks[best]) {
+                best = i;
+            }
+        }
+        return frontier[best];
+    }
+}
@@ -0,0 +1,121 @@
+package AI;
+
+import Model.Senses;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * The raw facts a player has gathered about a maze: where they stood, what
+ * they sensed there, which caves their arrows missed and which caves bats
+ * carried them away from. Unlike {@link KnowledgeBase} nothing is deduced
+ * here, so exact analyses can reason about the facts themselves.
+ *
+ * Assumes hazards stay where they are.
+ */
+public class Observations {
+    private int playerCaveId = -1;
+
+    // Caves the player stood in, each with the senses reported there
+    private int[] caves;
+    private byte[] senses;
+    private int count;
+    private final BitSet visited;
+
+    private final BitSet misses;
+    private final BitSet batCaves;
+
+    public Observations() {
+        caves = new int[16];
+        senses = new byte[16];
+        visited = new BitSet();
+        misses = new BitSet();
+        batCaves = new BitSet();
+    }
+
+    private Observations(Observations other) {
+        playerCaveId = other.playerCaveId;
+        caves = Arrays.copyOf(other.caves, other.count);
+        senses = Arrays.copyOf(other.senses, other.count);
+        count = other.count;
+        visited = (BitSet) other.visited.clone();
+        misses = (BitSet) other.misses.clone();
+        batCaves = (BitSet) other.batCaves.clone();
+    }
+
+    /**
+     * Records that the player is alive in a cave and sensed the given things.
+     */
+    public void observe(int caveId, Senses sensed) {
+        playerCaveId = caveId;
+        if (visited.get(caveId)) {
+            return;
+        }
+        visited.set(caveId);
+        if (count == caves.length) {
+            caves = Arrays.copyOf(caves, Math.max(16, count * 2));
+            senses = Arrays.copyOf(senses, caves.length);
+        }
+        caves[count] = caveId;
+        senses[count] = (byte) sensed.getMask();
+        count++;
+    }
+
+    /**
+     * Records an arrow that missed, so the target cannot hold the Wumpus.
+     */
+    public void recordMiss(int caveId) {
+        misses.set(caveId);
+    }
+
+    /**
+     * Records that bats carried the player out of a cave, so it holds bats
+     * and nothing else.
+     */
+    public void recordBats(int caveId) {
+        batCaves.set(caveId);
+    }
+
+    /**
+     * An independent copy, for handing to another thread.
+     */
+    public Observations copy() {
+        return new Observations(this);
+    }
+
+    /**
+     * @return The cave the player was last seen in, or -1 before the first
+     *         observation
+     */
+    public int getPlayerCaveId() {
+        return playerCaveId;
+    }
+
+    public int getVisitedCount() {
+        return count;
+    }
+
+    public int getVisitedCave(int index) {
+        return caves[index];
+    }
+
+    /**
+     * @return What was sensed in the index-th visited cave, as a
+     *         {@link Senses} mask
+     */
+    public int getSenseMask(int index) {
+        return senses[index];
+    }
+
+    public boolean isVisited(int caveId) {
+        return visited.get(caveId);
+    }
+
+    public boolean isMissed(int caveId) {
+        return misses.get(caveId);
+    }
+
+    public boolean isBatCave(int caveId) {
+        return batCaves.get(caveId);
+    }
+}
@@ -0,0 +1,595 @@
+package AI;
+
+import Metrics.Counter;
+import Metrics.Histogram;
+import Metrics.Metrics;
+import Model.IMaze;
+import Model.Maze;
+import Model.Senses;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Works out the exact chance that a game can still be won, given only what
+ * the player has observed so far.
+ *
+ * Every placement of the Wumpus, pits and bats that matches the observations
+ * is equally likely. A placement counts as won if, with its hazards revealed,
+ * the player could walk to a cave next to the Wumpus without entering a pit
+ * or the Wumpus, the same test as {@link Model.WinnabilityChecker}. The
+ * result is therefore what perfect play would achieve with the hazards
+ * revealed from now on, an upper bound for play that keeps exploring blind.
+ *
+ * Placements are enumerated with bitmasks, so mazes are limited to
+ * {@value #MAX_CAVES} caves:
+ * <ul>
+ *   <li>Wumpus and pit caves are enumerated, split into tasks on a fork-join
+ *       pool and summed in a fixed order, so the result does not depend on
+ *       the number of threads.</li>
+ *   <li>Maze symmetries that preserve every observation map placements onto
+ *       placements that play out the same. Only one Wumpus cave per orbit and
+ *       one pit layout per orbit are visited, weighted by the orbit size.</li>
+ *   <li>Bats never decide winnability, so they are counted instead of
+ *       enumerated, by inclusion-exclusion over the caves where bats were
+ *       heard. The count only depends on which caves next to those are left
+ *       free for bats, and is memoized on them.</li>
+ * </ul>
+ */
+public class WinProbabilityCalculator {
+    public static final int MAX_CAVES = 64;
+
+    // Most Wumpus and pit placements a computation may enumerate before
+    // symmetries are applied; a few hundred milliseconds of work
+    private static final long MAX_PLACEMENTS = 1L << 24;
+
+    // Work items handled by one task without splitting further
+    private static final int LEAF_ITEMS = 4;
+
+    private static final Histogram COMPUTE_TIME = Metrics.histogram("winProbability.nanos");
+    private static final Counter BAT_COUNT_HITS = Metrics.counter("winProbability.batCountHits");
+    private static final Counter BAT_COUNT_MISSES = Metrics.counter("winProbability.batCountMisses");
+
+    // BINOMIAL[n][k] = n choose k
+    private static final long[][] BINOMIAL = new long[MAX_CAVES + 1][MAX_CAVES + 1];
+
+    static {
+        for (int n = 0; n <= MAX_CAVES; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= n; k++) {
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + BINOMIAL[n - 1][k];
+            }
+        }
+    }
+
+    private final ForkJoinPool pool;
+
+    public WinProbabilityCalculator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public WinProbabilityCalculator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Whether {@link #compute} accepts these arguments: the maze is small
+     * enough, the player has been observed and the number of placements to
+     * enumerate is within budget.
+     */
+    public static boolean canCompute(IMaze maze, int numPits, int numBats, Observations observations) {
+        Problem problem = Problem.prepare(maze, numPits, numBats, observations);
+        return problem != null && problem.estimatePlacements() <= MAX_PLACEMENTS;
+    }
+
+    /**
+     * Computes the chance that the game can be won. Does not read the maze's
+     * hazard layers, only its layout and the hazard counts.
+     *
+     * @param maze The game maze
+     * @param numPits Number of pits in the game
+     * @param numBats Number of bats in the game
+     * @param observations What the player has observed; not modified
+     * @return The win probability between 0 and 1, or NaN if no placement
+     *         matches the observations
+     * @throws IllegalArgumentException if {@link #canCompute} is false
+     */
+    public double compute(IMaze maze, int numPits, int numBats, Observations observations) {
+        Problem problem = Problem.prepare(maze, numPits, numBats, observations);
+        if (problem == null || problem.estimatePlacements() > MAX_PLACEMENTS) {
+            throw new IllegalArgumentException("Too many caves or placements for an exact win probability");
+        }
+
+        long start = System.nanoTime();
+        double[] result = problem.workItems.length == 0
+                ? new double[2]
+                : pool.invoke(new SumTask(problem, 0, problem.workItems.length / 2));
+        COMPUTE_TIME.recordSince(start);
+        return result[1] == 0 ? Double.NaN : result[0] / result[1];
+    }
+
+    /**
+     * One computation: the observations turned into cave masks, the symmetries
+     * that preserve them and the list of work items.
+     */
+    private static final class Problem {
+        private final long[] neighbors;
+        private final int playerCaveId;
+        private final int numPits;
+        private final int batsLeft;
+
+        private final long wumpusCandidates;
+        private final long pitCandidates;
+        // Every pit layout must hit each of these: the neighbors of drafty caves
+        private final long[] pitRequired;
+        private final long batCandidates;
+        // Bats must hit each of these, unless the known bat caves already do
+        private final long[] batRequired;
+
+        // Symmetries preserving every observation, identity first
+        private final int[][] symmetries;
+
+        // Pairs of (Wumpus cave, index of the first pit candidate); the first
+        // pit is -1 when there are no pits
+        private final int[] workItems;
+        private final long[] wumpusWeights;
+
+        private final long batRelevant;
+
+        // Bat counting terms by the free caves next to caves where bats were heard
+        private final ConcurrentHashMap<Long, long[]> batTerms = new ConcurrentHashMap<>();
+
+        private Problem(long[] neighbors, int playerCaveId, int numPits, int batsLeft,
+                        long wumpusCandidates, long pitCandidates, long[] pitRequired,
+                        long batCandidates, long[] batRequired, int[][] symmetries) {
+            this.neighbors = neighbors;
+            this.playerCaveId = playerCaveId;
+            this.numPits = numPits;
+            this.batsLeft = batsLeft;
+            this.wumpusCandidates = wumpusCandidates;
+            this.pitCandidates = pitCandidates;
+            this.pitRequired = pitRequired;
+            this.batCandidates = batCandidates;
+            this.batRequired = batRequired;
+            long relevant = 0;
+            for (long cover : batRequired) {
+                relevant |= cover;
+            }
+            batRelevant = relevant & batCandidates;
+            this.symmetries = symmetries;
+
+            // One Wumpus cave per orbit, then one item per first pit
+            int[] items = new int[2 * MAX_CAVES * (MAX_CAVES + 1)];
+            long[] weights = new long[MAX_CAVES];
+            int count = 0;
+            for (long rest = wumpusCandidates; rest != 0; rest &= rest - 1) {
+                int wumpus = Long.numberOfTrailingZeros(rest);
+                long orbit = orbit(wumpus);
+                if (Long.numberOfTrailingZeros(orbit) != wumpus) {
+                    continue; // Not the smallest cave of its orbit
+                }
+                weights[wumpus] = Long.bitCount(orbit);
+
+                if (numPits == 0) {
+                    items[count++] = wumpus;
+                    items[count++] = -1;
+                    continue;
+                }
+                int candidates = Long.bitCount(pitCandidates & ~(1L << wumpus));
+                for (int first = 0; first <= candidates - numPits; first++) {
+                    items[count++] = wumpus;
+                    items[count++] = first;
+                }
+            }
+            workItems = Arrays.copyOf(items, count);
+            wumpusWeights = weights;
+        }
+
+        /**
+         * Turns the observations into masks.
+         *
+         * @return null if the maze is too large or the player was never observed
+         */
+        static Problem prepare(IMaze maze, int numPits, int numBats, Observations observations) {
+            int numCaves = maze.getCaveCount();
+            int playerCaveId = observations.getPlayerCaveId();
+            if (numCaves > MAX_CAVES || playerCaveId < 0 || numPits < 0 || numBats < 0) {
+                return null;
+            }
+
+            long[] neighbors = new long[numCaves];
+            for (int caveId = 0; caveId < numCaves; caveId++) {
+                for (int i = 0; i < maze.getNeighborCount(caveId); i++) {
+                    neighbors[caveId] |= 1L << maze.getNeighbor(caveId, i);
+                }
+            }
+
+            long all = numCaves == 64 ? -1L : (1L << numCaves) - 1;
+            long visited = 0;
+            long misses = 0;
+            long batCaves = 0;
+            for (int caveId = 0; caveId < numCaves; caveId++) {
+                if (observations.isMissed(caveId)) {
+                    misses |= 1L << caveId;
+                }
+                if (observations.isBatCave(caveId)) {
+                    batCaves |= 1L << caveId;
+                }
+            }
+
+            // Caves the player stood in hold nothing, known bat caves only bats
+            long wumpusCandidates = all & ~misses;
+            long noPit = 0;
+            long noBats = 0;
+            long[] pitRequired = new long[observations.getVisitedCount()];
+            long[] batRequired = new long[observations.getVisitedCount()];
+            int pitRequiredCount = 0;
+            int batRequiredCount = 0;
+            // Caves the player stood in, by what was sensed there
+            long[] sensed = new long[8];
+            for (int i = 0; i < observations.getVisitedCount(); i++) {
+                int caveId = observations.getVisitedCave(i);
+                int senses = observations.getSenseMask(i);
+                long around = neighbors[caveId];
+                visited |= 1L << caveId;
+                sensed[senses] |= 1L << caveId;
+
+                if ((senses & Senses.WUMPUS) != 0) {
+                    wumpusCandidates &= around;
+                } else {
+                    wumpusCandidates &= ~around;
+                }
+                if ((senses & Senses.PIT) != 0) {
+                    pitRequired[pitRequiredCount++] = around;
+                } else {
+                    noPit |= around;
+                }
+                if ((senses & Senses.BATS) != 0) {
+                    if ((around & batCaves) == 0) {
+                        batRequired[batRequiredCount++] = around;
+                    }
+                } else {
+                    noBats |= around;
+                }
+            }
+            visited |= 1L << playerCaveId;
+
+            long free = all & ~visited & ~batCaves;
+            wumpusCandidates &= free;
+            long pitCandidates = free & ~noPit;
+            long batCandidates = free & ~noBats;
+            for (int i = 0; i < pitRequiredCount; i++) {
+                pitRequired[i] &= pitCandidates;
+            }
+
+            int batsLeft = numBats - Long.bitCount(batCaves);
+            if ((batCaves & noBats) != 0 || batsLeft < 0) {
+                // The observations contradict each other; nothing matches
+                wumpusCandidates = 0;
+            }
+
+            int[][] symmetries = preservingSymmetries(maze, playerCaveId, sensed, misses, batCaves);
+            return new Problem(neighbors, playerCaveId, numPits, batsLeft, wumpusCandidates, pitCandidates,
+                    Arrays.copyOf(pitRequired, pitRequiredCount), batCandidates,
+                    Arrays.copyOf(batRequired, batRequiredCount), symmetries);
+        }
+
+        /**
+         * The maze symmetries that fix the player and map every observation
+         * onto an identical one.
+         */
+        private static int[][] preservingSymmetries(IMaze maze, int playerCaveId, long[] sensed,
+                                                    long misses, long batCaves) {
+            if (!(maze instanceof Maze)) {
+                int[] identity = new int[maze.getCaveCount()];
+                for (int i = 0; i < identity.length; i++) {
+                    identity[i] = i;
+                }
+                return new int[][] { identity };
+            }
+
+            int[][] all = ((Maze) maze).getTopology().getAutomorphisms();
+            int[][] kept = new int[all.length][];
+            int count = 0;
+            for (int[] symmetry : all) {
+                if (symmetry[playerCaveId] != playerCaveId
+                        || map(symmetry, misses) != misses
+                        || map(symmetry, batCaves) != batCaves) {
+                    continue;
+                }
+                boolean preserved = true;
+                for (long caves : sensed) {
+                    if (map(symmetry, caves) != caves) {
+                        preserved = false;
+                        break;
+                    }
+                }
+                if (preserved) {
+                    kept[count++] = symmetry;
+                }
+            }
+            return Arrays.copyOf(kept, count);
+        }
+
+        private static long map(int[] symmetry, long caves) {
+            long image = 0;
+            for (long rest = caves; rest != 0; rest &= rest - 1) {
+                image |= 1L << symmetry[Long.numberOfTrailingZeros(rest)];
+            }
+            return image;
+        }
+
+        private long orbit(int caveId) {
+            long orbit = 0;
+            for (int[] symmetry : symmetries) {
+                orbit |= 1L << symmetry[caveId];
+            }
+            return orbit;
+        }
+
+        /**
+         * Upper bound on the Wumpus and pit placements to enumerate, ignoring
+         * symmetries and pruning.
+         */
+        long estimatePlacements() {
+            int candidates = Long.bitCount(pitCandidates);
+            if (numPits > candidates) {
+                return 0;
+            }
+            long layouts = BINOMIAL[candidates][numPits];
+            int wumpusCount = Long.bitCount(wumpusCandidates);
+            return layouts > Long.MAX_VALUE / Math.max(1, wumpusCount) ? Long.MAX_VALUE : layouts * wumpusCount;
+        }
+
+        /**
+         * Sums one work item: every pit layout with the given Wumpus cave and
+         * first pit.
+         *
+         * @return {wins, total}, each weighted by the number of placements
+         */
+        double[] solve(int wumpus, int first) {
+            long wumpusBit = 1L << wumpus;
+            long[] required = new long[pitRequired.length];
+            for (int i = 0; i < required.length; i++) {
+                required[i] = pitRequired[i] & ~wumpusBit;
+                if (required[i] == 0) {
+                    return new double[2]; // A draft no pit can explain
+                }
+            }
+
+            // Symmetries that also fix this Wumpus cave
+            int[][] fixing = new int[symmetries.length][];
+            int fixingCount = 0;
+            for (int[] symmetry : symmetries) {
+                if (symmetry[wumpus] == wumpus) {
+                    fixing[fixingCount++] = symmetry;
+                }
+            }
+
+            int[] candidates = new int[MAX_CAVES];
+            int candidateCount = 0;
+            for (long rest = pitCandidates & ~wumpusBit; rest != 0; rest &= rest - 1) {
+                candidates[candidateCount++] = Long.numberOfTrailingZeros(rest);
+            }
+
+            Enumeration enumeration = new Enumeration(wumpus, required, fixing, fixingCount,
+                    candidates, candidateCount);
+            if (first < 0) {
+                enumeration.visit(0);
+            } else {
+                enumeration.choose(first + 1, 1, 1L << candidates[first]);
+            }
+
+            double weight = wumpusWeights[wumpus];
+            return new double[] { enumeration.wins * weight, enumeration.total * weight };
+        }
+
+        /**
+         * Depth-first enumeration of the pit layouts for one Wumpus cave.
+         */
+        private final class Enumeration {
+            private final int wumpus;
+            private final long[] required;
+            private final int[][] fixing;
+            private final int fixingCount;
+            private final int[] candidates;
+            private final int candidateCount;
+            // suffix[i] = mask of candidates[i ..]
+            private final long[] suffix;
+
+            double wins;
+            double total;
+
+            Enumeration(int wumpus, long[] required, int[][] fixing, int fixingCount,
+                        int[] candidates, int candidateCount) {
+                this.wumpus = wumpus;
+                this.required = required;
+                this.fixing = fixing;
+                this.fixingCount = fixingCount;
+                this.candidates = candidates;
+                this.candidateCount = candidateCount;
+                suffix = new long[candidateCount + 1];
+                for (int i = candidateCount - 1; i >= 0; i--) {
+                    suffix[i] = suffix[i + 1] | (1L << candidates[i]);
+                }
+            }
+
+            void choose(int next, int chosen, long pits) {
+                // Every draft must still be explainable by the pits left to place
+                for (long cover : required) {
+                    if ((cover & pits) == 0 && (cover & suffix[next]) == 0) {
+                        return;
+                    }
+                }
+                if (chosen == numPits) {
+                    visit(pits);
+                    return;
+                }
+                for (int i = next; i <= candidateCount - (numPits - chosen); i++) {
+                    choose(i + 1, chosen + 1, pits | (1L << candidates[i]));
+                }
+            }
+
+            void visit(long pits) {
+                for (long cover : required) {
+                    if ((cover & pits) == 0) {
+                        return;
+                    }
+                }
+
+                // Only the smallest layout of each orbit is counted, for all of them
+                int stabilizer = 0;
+                for (int i = 0; i < fixingCount; i++) {
+                    long image = map(fixing[i], pits);
+                    if (image == pits) {
+                        stabilizer++;
+                    } else if (Long.compareUnsigned(image, pits) < 0) {
+                        return;
+                    }
+                }
+
+                long bats = countBats(batCandidates & ~pits & ~(1L << wumpus));
+                if (bats == 0) {
+                    return;
+                }
+                double weight = (double) (fixingCount / stabilizer) * bats;
+                total += weight;
+                if (isWinnable(pits)) {
+                    wins += weight;
+                }
+            }
+
+            private boolean isWinnable(long pits) {
+                long safe = ~pits & ~(1L << wumpus);
+                long reached = 1L << playerCaveId;
+                long frontier = reached;
+                long goal = neighbors[wumpus];
+                while (frontier != 0) {
+                    if ((reached & goal) != 0) {
+                        return true;
+                    }
+                    long next = 0;
+                    for (long rest = frontier; rest != 0; rest &= rest - 1) {
+                        next |= neighbors[Long.numberOfTrailingZeros(rest)];
+                    }
+                    frontier = next & safe & ~reached;
+                    reached |= frontier;
+                }
+                return (reached & goal) != 0;
+            }
+        }
+
+        /**
+         * Number of ways to place the remaining bats in the given caves so
+         * every cave where bats were heard has bats next to it.
+         *
+         * Only the free caves next to such a cave matter individually; the
+         * others just add to a plain binomial. So the inclusion-exclusion
+         * terms are memoized on the former, grouped by how many caves they
+         * leave there, and combined with the count of the latter here.
+         */
+        private long countBats(long free) {
+            int outside = Long.bitCount(free & ~batRelevant);
+            if (batRelevant == 0) {
+                return BINOMIAL[outside][batsLeft];
+            }
+
+            long inside = free & batRelevant;
+            long[] terms = batTerms.get(inside);
+            if (terms != null) {
+                BAT_COUNT_HITS.increment();
+            } else {
+                BAT_COUNT_MISSES.increment();
+                terms = batTerms(inside);
+                batTerms.put(inside, terms);
+            }
+
+            long count = 0;
+            for (int left = 0; left < terms.length; left++) {
+                count += terms[left] * BINOMIAL[left + outside][batsLeft];
+            }
+            return count;
+        }
+
+        /**
+         * terms[k] sums (-1)^|S| over the sets S of requirements whose caves
+         * leave exactly k of the given ones free.
+         */
+        private long[] batTerms(long inside) {
+            long[] terms = new long[Long.bitCount(inside) + 1];
+
+            // A requirement that contains another one is implied by it
+            long[] covers = new long[batRequired.length];
+            int coverCount = 0;
+            for (long cover : batRequired) {
+                cover &= inside;
+                if (cover == 0) {
+                    return terms; // No bats can be heard there any more
+                }
+                boolean implied = false;
+                for (int i = 0; i < coverCount && !implied; i++) {
+                    if ((covers[i] & cover) == covers[i]) {
+                        implied = true;
+                    } else if ((covers[i] & cover) == cover) {
+                        covers[i] = cover;
+                        implied = true;
+                    }
+                }
+                if (!implied) {
+                    covers[coverCount++] = cover;
+                }
+            }
+
+            inclusionExclusion(covers, coverCount, 0, inside, 1, terms);
+            return terms;
+        }
+
+        private static void inclusionExclusion(long[] covers, int coverCount, int index, long left, int sign,
+                                               long[] terms) {
+            if (index == coverCount) {
+                terms[Long.bitCount(left)] += sign;
+                return;
+            }
+            inclusionExclusion(covers, coverCount, index + 1, left, sign, terms);
+            inclusionExclusion(covers, coverCount, index + 1, left & ~covers[index], -sign, terms);
+        }
+    }
+
+    /**
+     * Sums a range of work items, splitting it in halves so the sum is always
+     * taken in the same order.
+     */
+    private static final class SumTask extends RecursiveTask<double[]> {
+        private final Problem problem;
+        private final int from;
+        private final int to;
+
+        SumTask(Problem problem, int from, int to) {
+            this.problem = problem;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from <= LEAF_ITEMS) {
+                double[] sum = new double[2];
+                for (int i = from; i < to; i++) {
+                    double[] part = problem.solve(problem.workItems[2 * i], problem.workItems[2 * i + 1]);
+                    sum[0] += part[0];
+                    sum[1] += part[1];
+                }
+                return sum;
+            }
+
+            int middle = (from + to) >>> 1;
+            SumTask right = new SumTask(problem, middle, to);
+            right.fork();
+            double[] left = new SumTask(problem, from, middle).compute();
+            double[] rest = right.join();
+            return new double[] { left[0] + rest[0], left[1] + rest[1] };
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package Controller;
+
+import javax.swing.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs analysis work such as board generation and winnability checks on
+ * background threads so the EDT never waits for a graph traversal.
+ *
+ * Every job has a key. Submitting a new job for a key interrupts the one it
+ * supersedes, and a result is only handed to its callback, on the EDT, if
+ * its job is still the latest for that key. Call from the EDT only.
+ */
+public class AnalysisService {
+    private final ExecutorService executor;
+    private final Map<String, Job> latest = new HashMap<>();
+
+    public AnalysisService() {
+        AtomicInteger threadCount = new AtomicInteger();
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "analysis-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Runs the work in the background and delivers its result on the EDT,
+     * unless a newer job with the same key was submitted in the meantime.
+     * Failures are printed.
+     */
+    public <T> void submit(String key, Callable<T> work, Consumer<T> onResult) {
+        submit(key, work, onResult, Throwable::printStackTrace);
+    }
+
+    /**
+     * Like {@link #submit(String, Callable, Consumer)}, but failures of the
+     * latest job are handed to onError on the EDT.
+     */
+    public <T> void submit(String key, Callable<T> work, Consumer<T> onResult, Consumer<Exception> onError) {
+        cancel(key);
+
+        Job job = new Job();
+        latest.put(key, job);
+        job.future = executor.submit(() -> {
+            T result;
+            try {
+                result = work.call();
+            } catch (CancellationException | InterruptedException e) {
+                return; // Superseded
+            } catch (Exception e) {
+                deliver(key, job, () -> onError.accept(e));
+                return;
+            }
+            deliver(key, job, () -> onResult.accept(result));
+        });
+    }
+
+    private void deliver(String key, Job job, Runnable callback) {
+        SwingUtilities.invokeLater(() -> {
+            if (latest.get(key) == job) {
+                latest.remove(key);
+                callback.run();
+            }
+        });
+    }
+
+    /**
+     * Cancels the pending job for the key, if any.
+     */
+    public void cancel(String key) {
+        Job previous = latest.remove(key);
+        if (previous != null) {
+            previous.future.cancel(true);
+        }
+    }
+
+    public boolean isPending(String key) {
+        return latest.containsKey(key);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static class Job {
+        private Future<?> future;
+    }
+}
@@ -0,0 +1,193 @@
+package Controller;
+
+import Metrics.Counter;
+import Metrics.Metrics;
+import Model.BoardGenerator;
+import Model.GameBoard;
+import Model.GameRandom;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps a few boards for the current settings generated ahead of time, so
+ * starting a game only has to take one. A background thread refills the pool
+ * whenever a board is taken; changing the settings drops every pooled board
+ * and any board still being generated for the old settings.
+ *
+ * The pool is bounded by a total cave budget, so it holds several small
+ * boards but only one very large one.
+ *
+ * Only winnable boards are pooled. If several seeds in a row give none, the
+ * settings are taken to be too crowded and {@link #take()} reports it.
+ */
+public class BoardPool {
+    private static final int MAX_BOARDS = 4;
+    private static final int CAVE_BUDGET = 2_000_000;
+    // Seeds in a row without a winnable board before the settings are given up on
+    private static final int MAX_UNWINNABLE_SEEDS = 8;
+
+    private static final Counter HITS = Metrics.counter("boardPool.hits");
+    private static final Counter MISSES = Metrics.counter("boardPool.misses");
+    private static final Counter UNWINNABLE = Metrics.counter("boardPool.unwinnable");
+
+    private final BoardGenerator generator;
+    private final GameRandom seeds = new GameRandom();
+    private final ExecutorService executor;
+    private final Deque<GameBoard> ready = new ArrayDeque<>();
+
+    private int numCaves;
+    private int numPits;
+    private int numBats;
+    private int capacity;
+    private long generation;
+    private boolean refilling;
+    // Why the last refill for the current settings stopped, until a taker sees it
+    private RuntimeException failure;
+
+    public BoardPool(BoardGenerator generator) {
+        this.generator = generator;
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "board-pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Sets the board settings. Different settings discard the pooled boards
+     * and start generating new ones.
+     */
+    public synchronized void configure(int numCaves, int numPits, int numBats) {
+        if (capacity > 0 && numCaves == this.numCaves && numPits == this.numPits && numBats == this.numBats) {
+            return;
+        }
+        this.numCaves = numCaves;
+        this.numPits = numPits;
+        this.numBats = numBats;
+        capacity = Math.max(1, Math.min(MAX_BOARDS, CAVE_BUDGET / Math.max(1, numCaves)));
+        generation++;
+        ready.clear();
+        failure = null;
+        refill();
+    }
+
+    /**
+     * @return A pooled board for the current settings, or null if none is
+     *         ready yet
+     */
+    public synchronized GameBoard poll() {
+        GameBoard board = ready.pollFirst();
+        (board != null ? HITS : MISSES).increment();
+        refill();
+        return board;
+    }
+
+    /**
+     * Waits for a board for the current settings.
+     *
+     * @throws IllegalStateException If generating the board failed; the next
+     *         call tries again
+     */
+    public synchronized GameBoard take() throws InterruptedException {
+        while (ready.isEmpty()) {
+            if (failure != null) {
+                RuntimeException cause = failure;
+                failure = null;
+                throw new IllegalStateException("Board generation failed: " + cause.getMessage(), cause);
+            }
+            refill();
+            wait();
+        }
+        GameBoard board = ready.pollFirst();
+        refill();
+        return board;
+    }
+
+    public synchronized int size() {
+        return ready.size();
+    }
+
+    private void refill() {
+        if (!refilling && capacity > 0 && ready.size() < capacity) {
+            refilling = true;
+            executor.execute(this::fill);
+        }
+    }
+
+    private void fill() {
+        int unwinnable = 0;
+        long lastGeneration = -1;
+        while (true) {
+            long boardGeneration;
+            int caves;
+            int pits;
+            int bats;
+            long seed;
+            synchronized (this) {
+                if (ready.size() >= capacity) {
+                    refilling = false;
+                    return;
+                }
+                boardGeneration = generation;
+                caves = numCaves;
+                pits = numPits;
+                bats = numBats;
+                seed = seeds.nextLong();
+            }
+            if (boardGeneration != lastGeneration) {
+                unwinnable = 0;
+                lastGeneration = boardGeneration;
+            }
+
+            GameBoard board;
+            try {
+                board = generator.generate(seed, caves, pits, bats);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                if (stop(boardGeneration, e)) {
+                    return;
+                }
+                continue;
+            }
+
+            if (!board.isWinnable()) {
+                UNWINNABLE.increment();
+                if (++unwinnable < MAX_UNWINNABLE_SEEDS) {
+                    continue;
+                }
+                if (stop(boardGeneration, new IllegalStateException("No winnable board with "
+                        + caves + " caves, " + pits + " pits and " + bats + " bats"))) {
+                    return;
+                }
+                continue;
+            }
+
+            synchronized (this) {
+                // Settings changed while it was generated
+                if (boardGeneration == generation) {
+                    ready.addLast(board);
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Ends refilling with a failure for the current settings, waking waiting
+     * takers. A failure for settings that changed meanwhile is dropped.
+     *
+     * @return false if refilling should go on for the new settings
+     */
+    private synchronized boolean stop(long boardGeneration, RuntimeException cause) {
+        if (boardGeneration != generation) {
+            return false;
+        }
+        failure = cause;
+        refilling = false;
+        notifyAll();
+        return true;
+    }
+}
@@ -1,10 +1,25 @@
 package Controller;
 
+import AI.KnowledgeBase;
+import AI.Observations;
+import AI.WinProbabilityCalculator;
+import Model.BoardGenerator;
+import Model.GameBoard;
+import Model.GameEvent;
+import Model.GameEventListener;
+import Model.GameFile;
+import Model.GameSnapshot;
 import Model.IGameModel;
-import View.CaveView;
+import Model.IMaze;
+import Model.SafePathFinder;
+import Model.WinnabilityAnalysis;
+import View.CaveActionEvent;
 import View.GameSetupDialog;
 import View.GameView;
 
+import javax.swing.*;
+import java.nio.file.Path;
+
 public class GameSetupController {
     private IGameModel model;
     private GameView view;
@@ -12,6 +27,17 @@ public class GameSetupController {
     private int numPits = 2;
     private int numBats = 2;
     private int numArrows = 3;
+    private BoardPool boardPool = new BoardPool(new BoardGenerator());
+    private AnalysisService analysis = new AnalysisService();
+    private IMaze analysedMaze;
+    private int analysedHazardVersion;
+
+    // What the player has learned about the current maze, for travel commands
+    private KnowledgeBase knowledge;
+
+    // The same facts without deductions, for the exact chance to win
+    private Observations observations;
+    private final WinProbabilityCalculator winChance = new WinProbabilityCalculator();
 
     public GameSetupController(IGameModel model, GameView view) {
         this.model = model;
@@ -20,9 +46,135 @@ public class GameSetupController {
         // Set up action listeners
         view.getNewGameButton().addActionListener(e -> startNewGame());
         view.getSetupButton().addActionListener(e -> showSetupDialog());
+        view.getSaveButton().addActionListener(e -> saveGame());
+        view.getLoadButton().addActionListener(e -> loadGame());
 
         // Set up cave listeners
         setupCaveListeners();
+
+        // Start generating boards for the next game
+        boardPool.configure(numCaves, numPits, numBats);
+
+        // Large mazes leave winnability unknown in their events; work it out
+        // in the background and show it when it arrives
+        model.addEventListener(new GameEventListener() {
+            @Override
+            public void arrowShot(GameEvent.ArrowShot event) {
+                if (!event.isHit()) {
+                    knowledge().recordMiss(event.getTargetCaveId());
+                    observations().recordMiss(event.getTargetCaveId());
+                }
+            }
+
+            @Override
+            public void batTransport(GameEvent.BatTransport event) {
+                observations().recordBats(event.getFromCaveId());
+            }
+
+            @Override
+            public void hazardChanged(GameEvent.HazardChanged event) {
+                // A moving Wumpus makes the old deductions about it stale
+                if (event.getCaveId() >= 0 && model.getMaze().hasWumpus(event.getCaveId())) {
+                    knowledge().wumpusMoved();
+                }
+            }
+
+            @Override
+            public void eventsDelivered() {
+                observePlayer();
+                requestWinnability();
+                requestWinChance();
+            }
+        });
+        observePlayer();
+        requestWinChance();
+    }
+
+    // Also starts new observations whenever the maze changes
+    private KnowledgeBase knowledge() {
+        if (knowledge == null || knowledge.getMaze() != model.getMaze()) {
+            knowledge = new KnowledgeBase(model.getMaze());
+            observations = new Observations();
+        }
+        return knowledge;
+    }
+
+    private Observations observations() {
+        knowledge();
+        return observations;
+    }
+
+    private void observePlayer() {
+        if (!model.isGameOver()) {
+            int caveId = model.getPlayer().getCurrentCave().getId();
+            knowledge().observe(caveId, model.senses());
+            observations.observe(caveId, model.senses());
+        }
+    }
+
+    /**
+     * Works out the chance to win from what the player has observed, in the
+     * background. Only small mazes with hazards that stay put qualify.
+     */
+    private void requestWinChance() {
+        IMaze maze = model.getMaze();
+        if (model.isGameOver()) {
+            analysis.cancel("winChance");
+            view.showWinChance("won".equals(model.getGameStatus()) ? 1.0 : 0.0);
+            return;
+        }
+        if (model.isMovingHazards() || maze.getCaveCount() > WinProbabilityCalculator.MAX_CAVES) {
+            analysis.cancel("winChance");
+            view.showWinChance(Double.NaN);
+            return;
+        }
+
+        // The hazard counts are game settings, so the player knows them
+        int pits = 0;
+        int bats = 0;
+        for (int caveId = 0; caveId < maze.getCaveCount(); caveId++) {
+            if (maze.hasPit(caveId)) {
+                pits++;
+            }
+            if (maze.hasBat(caveId)) {
+                bats++;
+            }
+        }
+
+        Observations observed = observations().copy();
+        if (!WinProbabilityCalculator.canCompute(maze, pits, bats, observed)) {
+            analysis.cancel("winChance");
+            view.showWinChance(Double.NaN);
+            return;
+        }
+        final int numPits = pits;
+        final int numBats = bats;
+        analysis.submit("winChance", () -> winChance.compute(maze, numPits, numBats, observed),
+                view::showWinChance);
+    }
+
+    private void requestWinnability() {
+        if (model.isWinnabilityKnown()) {
+            analysis.cancel("winnability");
+            return;
+        }
+        IMaze maze = model.getMaze();
+        if (analysis.isPending("winnability") && analysedMaze == maze
+                && analysedHazardVersion == maze.getHazardVersion()) {
+            return; // Hazards have not changed, the running analysis still applies
+        }
+
+        // Anything older is superseded and gets cancelled by the new submission
+        analysedMaze = maze;
+        analysedHazardVersion = maze.getHazardVersion();
+        WinnabilityAnalysis pending = model.prepareWinnabilityAnalysis();
+        analysis.submit("winnability", pending::compute, result -> {
+            if (model.applyWinnabilityAnalysis(result)) {
+                view.refreshWinnableStatus();
+            } else {
+                requestWinnability();
+            }
+        });
     }
 
     private void setupCaveListeners() {
@@ -30,34 +182,106 @@ public class GameSetupController {
         view.getMazeView().setMoveListeners(e -> {
             if (model.isGameOver()) return;
 
-            CaveView source = (CaveView) e.getSource();
-            model.movePlayer(source.getCave());
+            model.movePlayer(((CaveActionEvent) e).getCave());
         });
 
         // Set shoot listeners (right-click)
         view.getMazeView().setShootListeners(e -> {
             if (model.isGameOver()) return;
 
-            CaveView source = (CaveView) e.getSource();
-            model.shootArrow(source.getCave());
+            model.shootArrow(((CaveActionEvent) e).getCave());
         });
+
+        // Set travel listeners (shift + left-click)
+        view.getMazeView().setTravelListeners(e -> {
+            if (model.isGameOver()) return;
+
+            travelTo(((CaveActionEvent) e).getCave().getId());
+        });
+    }
+
+    /**
+     * Walks the player to a cave along the safest path through what they know,
+     * one move at a time. Stops early if the game ends, bats carry the player
+     * off the path or a cave ahead turns out to be a hazard.
+     */
+    private void travelTo(int targetCaveId) {
+        int current = model.getPlayer().getCurrentCave().getId();
+        KnowledgeBase known = knowledge();
+        int[] path = SafePathFinder.find(model.getMaze(), current, targetCaveId,
+                known::isSafe, known::isKnownHazard);
+        if (path == null) {
+            return;
+        }
+
+        for (int caveId : path) {
+            if (model.isGameOver() || model.getPlayer().getCurrentCave().getId() != current
+                    || (caveId != targetCaveId && known.isKnownHazard(caveId))) {
+                return;
+            }
+            if (!model.movePlayer(caveId)) {
+                return;
+            }
+            current = caveId;
+        }
     }
 
     public void startNewGame() {
-        // Initialize the model with new game settings
-        model.initialize(numCaves, numPits, numBats, numArrows);
+        final int arrows = numArrows;
 
-        // Reset the view to create a completely new maze view
-        view.resetGame();
+        // Usually a pooled board is ready and the game starts right away
+        GameBoard board = boardPool.poll();
+        if (board != null) {
+            analysis.cancel("board");
+            applyBoard(board, arrows);
+            return;
+        }
+
+        // Otherwise wait for the pool off the EDT. A newer request cancels
+        // this one, so only the latest board is applied.
+        analysis.submit("board", boardPool::take, pooled -> applyBoard(pooled, arrows), this::showError);
+    }
+
+    private void applyBoard(GameBoard board, int arrows) {
+        // Initialize the model with the new board; its reset event
+        // rebuilds the maze view
+        model.initialize(board, arrows);
 
         // Set up listeners for the new cave views
         setupCaveListeners();
+    }
 
-        // Extra credit: Check if game is winnable, if not restart
-        if (!model.isWinnable()) {
-            System.out.println("Generated an unwinnable maze. Restarting with a new configuration...");
-            startNewGame();
+    private void saveGame() {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showSaveDialog(view) != JFileChooser.APPROVE_OPTION) {
+            return;
         }
+        Path path = chooser.getSelectedFile().toPath();
+
+        // Snapshots are immutable, so the file can be written in the background
+        GameSnapshot snapshot = model.snapshot();
+        analysis.submit("save", () -> {
+            GameFile.save(snapshot, path);
+            return path;
+        }, saved -> view.showMessage("Saved game to " + saved.getFileName()), this::showError);
+    }
+
+    private void loadGame() {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showOpenDialog(view) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path path = chooser.getSelectedFile().toPath();
+
+        // Shares the board key, so a pending new game does not overwrite the loaded one
+        analysis.submit("board", () -> GameFile.load(path), snapshot -> {
+            model.initialize(snapshot);
+            setupCaveListeners();
+        }, this::showError);
+    }
+
+    private void showError(Exception e) {
+        JOptionPane.showMessageDialog(view, e.getMessage(), "Hunt the Wumpus", JOptionPane.ERROR_MESSAGE);
     }
 
     private void showSetupDialog() {
@@ -70,6 +294,8 @@ public class GameSetupController {
             numPits = dialog.getNumPits();
             numBats = dialog.getNumBats();
             numArrows = dialog.getNumArrows();
+            model.setMovingHazards(dialog.isMovingHazards());
+            boardPool.configure(numCaves, numPits, numBats);
 
             // Start a new game with updated configuration
             startNewGame();
@@ -79,14 +305,17 @@ public class GameSetupController {
     // Setters for game configuration
     public void setNumCaves(int numCaves) {
         this.numCaves = numCaves;
+        boardPool.configure(numCaves, numPits, numBats);
     }
 
     public void setNumPits(int numPits) {
         this.numPits = numPits;
+        boardPool.configure(numCaves, numPits, numBats);
     }
 
     public void setNumBats(int numBats) {
         this.numBats = numBats;
+        boardPool.configure(numCaves, numPits, numBats);
     }
 
     public void setNumArrows(int numArrows) {
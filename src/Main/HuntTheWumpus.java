@@ -1,6 +1,7 @@
 package Main;
 
 import Controller.GameSetupController;
+import Metrics.Metrics;
 import Model.GameModel;
 import Model.IGameModel;
 import View.GameView;
@@ -9,6 +10,9 @@ import javax.swing.*;
 
 public class HuntTheWumpus {
     public static void main(String[] args) {
+        // JMX metrics, plus a periodic dump with -Dwumpus.metrics.dumpSeconds=N
+        Metrics.configureFromSystemProperties();
+
         // Use SwingUtilities.invokeLater for thread safety
         SwingUtilities.invokeLater(() -> {
             // Create model
@@ -20,11 +24,9 @@ public class HuntTheWumpus {
             // Create view
             GameView view = new GameView(model);
 
-            // Create controller and connect to view
-            GameSetupController controller = new GameSetupController(model, view);
-
-            // Start an initial game
-            controller.startNewGame();
+            // Create controller and connect to view; it starts pooling boards
+            // for the next game, the first one is already being played
+            new GameSetupController(model, view);
         });
     }
 }
\ No newline at end of file
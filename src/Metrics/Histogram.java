@@ -0,0 +1,91 @@
+package Metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of non-negative values, usually latencies in
+ * nanoseconds. Values go into power-of-two buckets, so recording is a few
+ * atomic adds and percentiles are accurate to within a factor of two.
+ */
+public final class Histogram {
+    private final AtomicLongArray buckets = new AtomicLongArray(65);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    Histogram() {
+    }
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(value));
+        count.increment();
+        sum.add(value);
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * Records the time elapsed since a System.nanoTime() reading.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @param p A fraction between 0 and 1
+     * @return The upper bound of the bucket holding that percentile
+     */
+    public long getPercentile(double p) {
+        long n = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            n += buckets.get(i);
+        }
+        if (n == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(p * n);
+        long seen = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if (seen >= Math.max(1, rank)) {
+                return i == 0 ? 0 : Math.min(max.get(), (1L << i) - 1);
+            }
+        }
+        return max.get();
+    }
+
+    void reset() {
+        for (int i = 0; i < buckets.length(); i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.0f p50=%d p99=%d max=%d",
+                getCount(), getMean(), getPercentile(0.50), getPercentile(0.99), getMax());
+    }
+}
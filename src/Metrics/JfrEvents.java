@@ -0,0 +1,85 @@
+package Metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Custom Flight Recorder events. They cost next to nothing unless a
+ * recording with them enabled is running, e.g. started with
+ * {@code -XX:StartFlightRecording}.
+ */
+public final class JfrEvents {
+    private JfrEvents() {
+    }
+
+    @Name("wumpus.MazeBuild")
+    @Label("Maze Build")
+    @Category({"Hunt the Wumpus", "Model"})
+    public static final class MazeBuild extends Event {
+        @Label("Caves")
+        public int caves;
+    }
+
+    @Name("wumpus.HazardPlacement")
+    @Label("Hazard Placement")
+    @Category({"Hunt the Wumpus", "Model"})
+    public static final class HazardPlacement extends Event {
+        @Label("Caves")
+        public int caves;
+
+        @Label("Pits")
+        public int pits;
+
+        @Label("Bats")
+        public int bats;
+    }
+
+    @Name("wumpus.BoardGeneration")
+    @Label("Board Generation")
+    @Category({"Hunt the Wumpus", "Model"})
+    public static final class BoardGeneration extends Event {
+        @Label("Caves")
+        public int caves;
+
+        @Label("Attempts")
+        @Description("Candidate boards generated until a winnable one was found")
+        public int attempts;
+
+        @Label("Winnable")
+        public boolean winnable;
+    }
+
+    @Name("wumpus.WinnabilityCheck")
+    @Label("Winnability Check")
+    @Category({"Hunt the Wumpus", "Model"})
+    @Description("Safe region labelling behind isWinnable, run when the cached one is stale")
+    public static final class WinnabilityCheck extends Event {
+        @Label("Caves")
+        public int caves;
+    }
+
+    @Name("wumpus.ListenerDispatch")
+    @Label("Listener Dispatch")
+    @Category({"Hunt the Wumpus", "Model"})
+    public static final class ListenerDispatch extends Event {
+        @Label("Events")
+        public int events;
+
+        @Label("Listeners")
+        public int listeners;
+    }
+
+    @Name("wumpus.Paint")
+    @Label("Paint")
+    @Category({"Hunt the Wumpus", "View"})
+    public static final class Paint extends Event {
+        @Label("Component")
+        public String component;
+
+        @Label("Caves")
+        public int caves;
+    }
+}
@@ -0,0 +1,153 @@
+package Metrics;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+/**
+ * The process-wide metrics registry. Instrumented classes look their
+ * counters and histograms up once, into static fields, and then only pay for
+ * a few atomic adds per recording. Latency histograms are in nanoseconds.
+ * Gauges are read only when the metrics are, for values such as ratios that
+ * are derived from other state.
+ */
+public final class Metrics {
+    private static final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private static final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private static final Map<String, DoubleSupplier> gauges = new ConcurrentHashMap<>();
+    private static final MetricsMXBean mxBean = new Bean();
+
+    private static ScheduledExecutorService dumper;
+
+    private Metrics() {
+    }
+
+    public static Counter counter(String name) {
+        return counters.computeIfAbsent(name, n -> new Counter());
+    }
+
+    public static Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, n -> new Histogram());
+    }
+
+    /**
+     * Registers a value that is computed whenever the metrics are read.
+     * Replaces any gauge registered before under the same name.
+     */
+    public static void gauge(String name, DoubleSupplier value) {
+        gauges.put(name, value);
+    }
+
+    /**
+     * @return Every metric, one per line, sorted by name
+     */
+    public static String dump() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Counter> entry : new TreeMap<>(counters).entrySet()) {
+            sb.append(entry.getKey()).append(' ').append(entry.getValue().get()).append('\n');
+        }
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(histograms).entrySet()) {
+            sb.append(entry.getKey()).append(' ').append(entry.getValue()).append('\n');
+        }
+        for (Map.Entry<String, DoubleSupplier> entry : new TreeMap<>(gauges).entrySet()) {
+            sb.append(entry.getKey()).append(' ').append(entry.getValue().getAsDouble()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    public static void reset() {
+        counters.values().forEach(Counter::reset);
+        histograms.values().forEach(Histogram::reset);
+    }
+
+    /**
+     * Exposes the registry through the platform MBean server. Safe to call
+     * more than once.
+     */
+    public static synchronized void registerMBean() {
+        try {
+            ObjectName name = new ObjectName("HuntTheWumpus:type=Metrics");
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(mxBean, name);
+            }
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Prints {@link #dump()} to the stream at a fixed period from a daemon
+     * thread. Replaces any dump started before.
+     */
+    public static synchronized void startPeriodicDump(long periodSeconds, PrintStream out) {
+        stopPeriodicDump();
+        dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumper.scheduleAtFixedRate(() -> out.print("--- metrics ---\n" + dump()),
+                periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    public static synchronized void stopPeriodicDump() {
+        if (dumper != null) {
+            dumper.shutdownNow();
+            dumper = null;
+        }
+    }
+
+    /**
+     * Applies the standard switches: registers the MBean, and starts a
+     * periodic dump if the {@code wumpus.metrics.dumpSeconds} system property
+     * is set.
+     */
+    public static void configureFromSystemProperties() {
+        registerMBean();
+        Long seconds = Long.getLong("wumpus.metrics.dumpSeconds");
+        if (seconds != null && seconds > 0) {
+            startPeriodicDump(seconds, System.out);
+        }
+    }
+
+    private static class Bean implements MetricsMXBean {
+        @Override
+        public Map<String, Long> getCounters() {
+            Map<String, Long> values = new TreeMap<>();
+            counters.forEach((name, counter) -> values.put(name, counter.get()));
+            return values;
+        }
+
+        @Override
+        public Map<String, String> getHistograms() {
+            Map<String, String> values = new TreeMap<>();
+            histograms.forEach((name, histogram) -> values.put(name, histogram.toString()));
+            return values;
+        }
+
+        @Override
+        public Map<String, Double> getGauges() {
+            Map<String, Double> values = new TreeMap<>();
+            gauges.forEach((name, gauge) -> values.put(name, gauge.getAsDouble()));
+            return values;
+        }
+
+        @Override
+        public String dump() {
+            return Metrics.dump();
+        }
+
+        @Override
+        public void reset() {
+            Metrics.reset();
+        }
+    }
+}
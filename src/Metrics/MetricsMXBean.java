@@ -0,0 +1,20 @@
+package Metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of the metrics registry, registered as
+ * {@code HuntTheWumpus:type=Metrics}.
+ */
+public interface MetricsMXBean {
+    Map<String, Long> getCounters();
+
+    // Histogram summaries: count, mean, p50, p99 and max
+    Map<String, String> getHistograms();
+
+    Map<String, Double> getGauges();
+
+    String dump();
+
+    void reset();
+}
@@ -0,0 +1,218 @@
+package Model;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Everything needed to reproduce a game exactly: the board seed, the game
+ * settings and the sequence of accepted moves and shots.
+ *
+ * Each action is stored as a varint of {@code caveId * 2}, plus one for a
+ * shot, so an action on a maze of up to 64 caves takes a single byte.
+ * Because board generation and bat flights are driven by the seed, replaying
+ * the actions on a fresh model gives the same game, bats and all, as long as
+ * the moving-hazards rule matches; the log records it.
+ */
+public final class ActionLog {
+    // Version 2 added the moving-hazards flag
+    private static final int FORMAT_VERSION = 2;
+
+    private final long seed;
+    private final int numCaves;
+    private final int numPits;
+    private final int numBats;
+    private final int numArrows;
+    private final boolean movingHazards;
+
+    private byte[] data;
+    private int length;
+    private int count;
+
+    public ActionLog(long seed, int numCaves, int numPits, int numBats, int numArrows) {
+        this(seed, numCaves, numPits, numBats, numArrows, false);
+    }
+
+    public ActionLog(long seed, int numCaves, int numPits, int numBats, int numArrows,
+                     boolean movingHazards) {
+        this.seed = seed;
+        this.numCaves = numCaves;
+        this.numPits = numPits;
+        this.numBats = numBats;
+        this.numArrows = numArrows;
+        this.movingHazards = movingHazards;
+        this.data = new byte[64];
+    }
+
+    public void appendMove(int caveId) {
+        appendVarint(caveId << 1);
+    }
+
+    public void appendShot(int caveId) {
+        appendVarint((caveId << 1) | 1);
+    }
+
+    private void appendVarint(int value) {
+        if (length + 5 > data.length) {
+            data = Arrays.copyOf(data, data.length * 2);
+        }
+        while ((value & ~0x7F) != 0) {
+            data[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+        count++;
+    }
+
+    /**
+     * Rebuilds the board from the seed, initializes the model with it and
+     * applies every logged action. Switch the model's listeners, history and
+     * action log off first for full speed.
+     *
+     * @return The number of actions applied; fewer than {@link #size()} if
+     *         the model rejected one, which means the log does not match
+     */
+    public int replay(IGameModel model) {
+        model.setMovingHazards(movingHazards);
+        model.initialize(generateBoard(), numArrows);
+        return applyActions(model);
+    }
+
+    /**
+     * Rebuilds the board the logged game was played on.
+     */
+    public GameBoard generateBoard() {
+        return new BoardGenerator().generate(seed, numCaves, numPits, numBats);
+    }
+
+    /**
+     * Applies the logged actions to a model already initialized with
+     * {@link #generateBoard()} and set to the logged moving-hazards rule.
+     *
+     * @return The number of actions applied
+     */
+    public int applyActions(IGameModel model) {
+        byte[] bytes = data;
+        int position = 0;
+        int applied = 0;
+        while (position < length) {
+            // Inline varint decoding; the hot loop of a replay
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            int caveId = value >>> 1;
+            boolean accepted = (value & 1) != 0 ? model.shootArrow(caveId) : model.movePlayer(caveId);
+            if (!accepted) {
+                break;
+            }
+            applied++;
+        }
+        return applied;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getNumCaves() {
+        return numCaves;
+    }
+
+    public int getNumPits() {
+        return numPits;
+    }
+
+    public int getNumBats() {
+        return numBats;
+    }
+
+    public int getNumArrows() {
+        return numArrows;
+    }
+
+    public boolean isMovingHazards() {
+        return movingHazards;
+    }
+
+    /**
+     * @return The number of logged actions
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return The encoded size of the actions in bytes
+     */
+    public int byteSize() {
+        return length;
+    }
+
+    public ActionLog copy() {
+        ActionLog copy = new ActionLog(seed, numCaves, numPits, numBats, numArrows, movingHazards);
+        copy.data = Arrays.copyOf(data, Math.max(length, 1));
+        copy.length = length;
+        copy.count = count;
+        return copy;
+    }
+
+    // Undo and time travel move the end of the log along with the timeline;
+    // the bytes after it stay valid until the next action overwrites them
+    int getLength() {
+        return length;
+    }
+
+    void rewind(int length, int count) {
+        this.length = length;
+        this.count = count;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(FORMAT_VERSION);
+        data.writeLong(seed);
+        data.writeInt(numCaves);
+        data.writeInt(numPits);
+        data.writeInt(numBats);
+        data.writeInt(numArrows);
+        data.writeBoolean(movingHazards);
+        data.writeInt(count);
+        data.writeInt(length);
+        data.write(this.data, 0, length);
+        data.flush();
+    }
+
+    public static ActionLog readFrom(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        int version = data.readInt();
+        if (version < 1 || version > FORMAT_VERSION) {
+            throw new IOException("Unsupported action log version " + version);
+        }
+        long seed = data.readLong();
+        int numCaves = data.readInt();
+        int numPits = data.readInt();
+        int numBats = data.readInt();
+        int numArrows = data.readInt();
+        boolean movingHazards = version >= 2 && data.readBoolean();
+        ActionLog log = new ActionLog(seed, numCaves, numPits, numBats, numArrows, movingHazards);
+        int count = data.readInt();
+        int length = data.readInt();
+        if (count < 0 || length < 0) {
+            throw new IOException("Corrupt action log");
+        }
+        log.data = new byte[Math.max(length, 1)];
+        data.readFully(log.data, 0, length);
+        log.length = length;
+        log.count = count;
+        return log;
+    }
+}
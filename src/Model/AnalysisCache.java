@@ -0,0 +1,224 @@
+package Model;
+
+import Metrics.Counter;
+import Metrics.Metrics;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Results of board analyses, keyed by {@link CanonicalBoard} so a board and
+ * every relabeling of it share one entry. Each kind of result, such as
+ * winnability or a solver's route, is a {@link Kind} with its own size
+ * estimate.
+ *
+ * The cache is bounded by the estimated bytes of its keys and values, not by
+ * a number of entries, and evicts the least recently used entries first.
+ * Hits, misses and evictions are counted in {@link Metrics}, together with a
+ * hit-rate gauge. Safe to use from several threads; values are computed
+ * outside the lock, so two threads may compute the same one.
+ */
+public final class AnalysisCache {
+    // Default budget of the shared cache; about 100k small entries
+    private static final long DEFAULT_MAX_BYTES = 16L << 20;
+
+    // Map entry, key object and boxed value overhead per entry
+    private static final int ENTRY_OVERHEAD = 96;
+
+    /**
+     * Whether the Wumpus can be reached, as {@link WinnabilityChecker} decides.
+     */
+    public static final Kind<Boolean> WINNABLE = new Kind<>("winnable", value -> 16);
+
+    /**
+     * The shortest winning route, with caves as canonical indexes; see
+     * {@link GameBoard#getSolution()}.
+     */
+    public static final Kind<int[]> SOLUTION = new Kind<>("solution", value -> 16 + 4 * value.length);
+
+    /**
+     * How hard the board is to win; see {@link GameBoard#getDifficulty()}.
+     */
+    public static final Kind<Integer> DIFFICULTY = new Kind<>("difficulty", value -> 16);
+
+    private static final AnalysisCache SHARED = new AnalysisCache("analysisCache",
+            Long.getLong("wumpus.analysisCache.bytes", DEFAULT_MAX_BYTES));
+
+    private final long maxBytes;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    // Least recently used first; guarded by itself
+    private final LinkedHashMap<Slot, Stored> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    /**
+     * @param name Prefix of this cache's metrics
+     * @param maxBytes Estimated bytes kept before the oldest entries go
+     */
+    public AnalysisCache(String name, long maxBytes) {
+        this.maxBytes = maxBytes;
+        hits = Metrics.counter(name + ".hits");
+        misses = Metrics.counter(name + ".misses");
+        evictions = Metrics.counter(name + ".evictions");
+        Metrics.gauge(name + ".hitRate", this::getHitRate);
+        Metrics.gauge(name + ".bytes", this::getBytes);
+    }
+
+    /**
+     * The process-wide cache. Its budget can be set with the
+     * {@code wumpus.analysisCache.bytes} system property.
+     */
+    public static AnalysisCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * @return The cached result, or null if there is none
+     */
+    public <V> V get(CanonicalBoard board, Kind<V> kind) {
+        Stored stored;
+        synchronized (entries) {
+            stored = entries.get(new Slot(board, kind));
+        }
+        if (stored == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return kind.type(stored.value);
+    }
+
+    /**
+     * Whether a result is cached, without counting a hit or miss or
+     * refreshing the entry.
+     */
+    public boolean contains(CanonicalBoard board, Kind<?> kind) {
+        synchronized (entries) {
+            return entries.containsKey(new Slot(board, kind));
+        }
+    }
+
+    public <V> void put(CanonicalBoard board, Kind<V> kind, V value) {
+        int size = ENTRY_OVERHEAD + board.estimateBytes() + kind.weigher.applyAsInt(value);
+        if (size > maxBytes) {
+            return;
+        }
+
+        synchronized (entries) {
+            Stored old = entries.put(new Slot(board, kind), new Stored(value, size));
+            if (old != null) {
+                bytes -= old.size;
+            }
+            bytes += size;
+
+            Iterator<Stored> eldest = entries.values().iterator();
+            while (bytes > maxBytes) {
+                bytes -= eldest.next().size;
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Returns the cached result, computing and caching it on a miss.
+     */
+    public <V> V get(CanonicalBoard board, Kind<V> kind, Supplier<V> compute) {
+        V value = get(board, kind);
+        if (value == null) {
+            value = compute.get();
+            put(board, kind, value);
+        }
+        return value;
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            bytes = 0;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getBytes() {
+        synchronized (entries) {
+            return bytes;
+        }
+    }
+
+    /**
+     * @return The fraction of lookups that hit, or 0 before the first lookup
+     */
+    public double getHitRate() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    /**
+     * A kind of analysis result, with an estimate of its size in bytes.
+     * Kinds are compared by identity, so declare each one once.
+     */
+    public static final class Kind<V> {
+        private final String name;
+        private final ToIntFunction<V> weigher;
+
+        public Kind(String name, ToIntFunction<V> weigher) {
+            this.name = name;
+            this.weigher = weigher;
+        }
+
+        @SuppressWarnings("unchecked")
+        private V type(Object value) {
+            return (V) value;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private static final class Slot {
+        private final CanonicalBoard board;
+        private final Kind<?> kind;
+
+        Slot(CanonicalBoard board, Kind<?> kind) {
+            this.board = board;
+            this.kind = kind;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (obj == null || getClass() != obj.getClass()) return false;
+            Slot other = (Slot) obj;
+            return kind == other.kind && board.equals(other.board);
+        }
+
+        @Override
+        public int hashCode() {
+            return board.hashCode() * 31 + System.identityHashCode(kind);
+        }
+    }
+
+    private static final class Stored {
+        private final Object value;
+        private final int size;
+
+        Stored(Object value, int size) {
+            this.value = value;
+            this.size = size;
+        }
+    }
+}
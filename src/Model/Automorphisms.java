@@ -0,0 +1,140 @@
+package Model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the symmetries of a cave graph: the permutations of cave ids that map
+ * every tunnel onto a tunnel. Two hazard placements related by one of them
+ * play out the same, which lets exhaustive searches skip all but one of them.
+ *
+ * Only small topologies are searched; larger ones just get the identity.
+ */
+final class Automorphisms {
+    // Largest topology searched, and most symmetries kept
+    static final int MAX_CAVES = 64;
+    private static final int MAX_GROUP_SIZE = 1 << 16;
+
+    private final Topology topology;
+    private final int numCaves;
+    private final int[] order;
+    private final int[] parent;
+    private final int[] image;
+    private final boolean[] used;
+    private final List<int[]> found = new ArrayList<>();
+
+    private Automorphisms(Topology topology) {
+        this.topology = topology;
+        this.numCaves = topology.getCaveCount();
+        order = new int[numCaves];
+        parent = new int[numCaves];
+        image = new int[numCaves];
+        used = new boolean[numCaves];
+    }
+
+    /**
+     * @return Every automorphism as an array mapping each cave id to its
+     *         image; the identity comes first
+     */
+    static int[][] of(Topology topology) {
+        int numCaves = topology.getCaveCount();
+        if (numCaves > MAX_CAVES) {
+            int[] identity = new int[numCaves];
+            for (int i = 0; i < numCaves; i++) {
+                identity[i] = i;
+            }
+            return new int[][] { identity };
+        }
+
+        Automorphisms search = new Automorphisms(topology);
+        search.orderCaves();
+        search.extend(0);
+
+        // The search order need not find the identity first
+        List<int[]> found = search.found;
+        for (int i = 0; i < found.size(); i++) {
+            if (isIdentity(found.get(i))) {
+                found.add(0, found.remove(i));
+                break;
+            }
+        }
+        return found.toArray(new int[0][]);
+    }
+
+    private static boolean isIdentity(int[] permutation) {
+        for (int i = 0; i < permutation.length; i++) {
+            if (permutation[i] != i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Breadth-first order, so every cave after the first of its component has
+     * an already placed neighbor that limits where it can map to.
+     */
+    private void orderCaves() {
+        boolean[] seen = new boolean[numCaves];
+        int tail = 0;
+        for (int root = 0; root < numCaves; root++) {
+            if (seen[root]) {
+                continue;
+            }
+            seen[root] = true;
+            parent[tail] = -1;
+            order[tail++] = root;
+            for (int head = tail - 1; head < tail; head++) {
+                int current = order[head];
+                for (int i = 0; i < topology.getNeighborCount(current); i++) {
+                    int neighbor = topology.getNeighbor(current, i);
+                    if (!seen[neighbor]) {
+                        seen[neighbor] = true;
+                        parent[tail] = current;
+                        order[tail++] = neighbor;
+                    }
+                }
+            }
+        }
+    }
+
+    private void extend(int index) {
+        if (found.size() >= MAX_GROUP_SIZE) {
+            return;
+        }
+        if (index == numCaves) {
+            found.add(image.clone());
+            return;
+        }
+
+        int cave = order[index];
+        if (parent[index] < 0) {
+            // A new component may map onto any unused cave
+            for (int candidate = 0; candidate < numCaves; candidate++) {
+                tryMap(index, cave, candidate);
+            }
+        } else {
+            int mappedParent = image[parent[index]];
+            for (int i = 0; i < topology.getNeighborCount(mappedParent); i++) {
+                tryMap(index, cave, topology.getNeighbor(mappedParent, i));
+            }
+        }
+    }
+
+    private void tryMap(int index, int cave, int candidate) {
+        if (used[candidate] || topology.getNeighborCount(candidate) != topology.getNeighborCount(cave)) {
+            return;
+        }
+        // Tunnels and non-tunnels to every placed cave must be preserved
+        for (int j = 0; j < index; j++) {
+            int placed = order[j];
+            if (topology.areAdjacent(cave, placed) != topology.areAdjacent(candidate, image[placed])) {
+                return;
+            }
+        }
+        image[cave] = candidate;
+        used[candidate] = true;
+        extend(index + 1);
+        used[candidate] = false;
+    }
+}
@@ -0,0 +1,289 @@
+package Model;
+
+import Metrics.Counter;
+import Metrics.Histogram;
+import Metrics.JfrEvents;
+import Metrics.Metrics;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Produces winnable boards without the regenerate-and-retry loop.
+ *
+ * The Wumpus and the player are placed first and a shortest safe path from
+ * the player to a cave next to the Wumpus is reserved, so pits can never cut
+ * it off. If the requested hazards do not fit around that path, random
+ * candidate boards are generated in parallel batches until one is winnable
+ * or the attempt budget runs out.
+ *
+ * Every board comes from a single seed, so a board can be rebuilt exactly
+ * from {@link GameBoard#getSeed()} and its settings.
+ */
+public class BoardGenerator {
+    private static final int MAX_CANDIDATE_ATTEMPTS = 1024;
+
+    // Game seeds are split into numbered streams; boards use this one
+    static final int BOARD_STREAM = 0;
+
+    private static final Histogram GENERATION_TIME = Metrics.histogram("board.generate.nanos");
+    private static final Histogram HAZARD_PLACEMENT_TIME = Metrics.histogram("board.hazards.nanos");
+    private static final Histogram ATTEMPTS = Metrics.histogram("board.attempts");
+    private static final Counter CANDIDATE_FALLBACKS = Metrics.counter("board.candidateFallbacks");
+
+    // Only draws board seeds
+    private Random random;
+
+    public BoardGenerator() {
+        this(new GameRandom());
+    }
+
+    public BoardGenerator(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * Generates a board, preferring one that is winnable by construction.
+     *
+     * @param numCaves Number of caves in the maze
+     * @param numPits Number of pits to place
+     * @param numBats Number of bats to place
+     * @return The generated board; check {@link GameBoard#isWinnable()} if
+     *         the hazard counts are close to the number of caves
+     */
+    public GameBoard generate(int numCaves, int numPits, int numBats) {
+        return generate(random.nextLong(), numCaves, numPits, numBats);
+    }
+
+    /**
+     * Generates the board for a seed. The same seed and settings always give
+     * the same board, and this method is safe to call from any thread.
+     */
+    public GameBoard generate(long seed, int numCaves, int numPits, int numBats) {
+        long start = System.nanoTime();
+        JfrEvents.BoardGeneration event = new JfrEvents.BoardGeneration();
+        event.begin();
+
+        GameRandom boardRandom = new GameRandom(GameRandom.streamSeed(seed, BOARD_STREAM));
+        GameBoard board = generateWithReservedPath(numCaves, numPits, numBats, boardRandom, seed);
+        if (board == null) {
+            CANDIDATE_FALLBACKS.increment();
+            board = generateByCandidates(numCaves, numPits, numBats, boardRandom, seed);
+        }
+
+        event.caves = numCaves;
+        event.attempts = board.getAttempts();
+        event.winnable = board.isWinnable();
+        event.commit();
+        GENERATION_TIME.recordSince(start);
+        ATTEMPTS.record(board.getAttempts());
+        return board;
+    }
+
+    private GameBoard generateWithReservedPath(int numCaves, int numPits, int numBats,
+                                               Random random, long seed) {
+        Maze maze = new Maze(numCaves, random);
+
+        // Wumpus and player first, they need distinct empty caves
+        if (maze.getEmptyCaveCount() < 2) {
+            return null;
+        }
+        int wumpusId = maze.getRandomEmptyCave().getId();
+        maze.setWumpus(wumpusId, true);
+        int playerId = maze.getRandomEmptyCave().getId();
+
+        // Reserve the shortest path from the player to a random cave next to the Wumpus
+        boolean[] reserved = reserveSafePath(maze, playerId, wumpusId, random);
+        if (reserved == null) {
+            return null;
+        }
+
+        int reservedCount = 0;
+        for (boolean r : reserved) {
+            if (r) {
+                reservedCount++;
+            }
+        }
+
+        // Pits must stay off the path, bats only need to stay off the player
+        if (maze.getEmptyCaveCount() - reservedCount < numPits
+                || maze.getEmptyCaveCount() - 1 < numPits + numBats) {
+            return null;
+        }
+
+        long start = System.nanoTime();
+        JfrEvents.HazardPlacement event = new JfrEvents.HazardPlacement();
+        event.begin();
+
+        int[] pitIds = new int[numPits];
+        for (int i = 0; i < numPits; i++) {
+            int caveId = sampleEmptyCave(maze, reserved, -1);
+            maze.setPit(caveId, true);
+            pitIds[i] = caveId;
+        }
+
+        int[] batIds = new int[numBats];
+        for (int i = 0; i < numBats; i++) {
+            int caveId = sampleEmptyCave(maze, null, playerId);
+            maze.setBat(caveId, true);
+            batIds[i] = caveId;
+        }
+
+        event.caves = numCaves;
+        event.pits = numPits;
+        event.bats = numBats;
+        event.commit();
+        HAZARD_PLACEMENT_TIME.recordSince(start);
+
+        return new GameBoard(maze, wumpusId, pitIds, batIds, playerId, 1, true, seed);
+    }
+
+    /**
+     * Draws empty caves until one is outside the reserved set. Callers make sure
+     * enough unreserved empty caves exist, so this terminates quickly.
+     */
+    private int sampleEmptyCave(Maze maze, boolean[] reserved, int excludedId) {
+        while (true) {
+            int caveId = maze.getRandomEmptyCave().getId();
+            if (caveId != excludedId && (reserved == null || !reserved[caveId])) {
+                return caveId;
+            }
+        }
+    }
+
+    /**
+     * Finds a shortest path that avoids the Wumpus from the player to one of the
+     * Wumpus' neighbors, picked at random.
+     *
+     * @return Flags for the caves on the path indexed by cave id, or null if
+     *         no such path exists
+     */
+    private boolean[] reserveSafePath(Maze maze, int playerId, int wumpusId, Random random) {
+        int degree = maze.getNeighborCount(wumpusId);
+        if (degree == 0) {
+            return null;
+        }
+        int targetId = maze.getNeighbor(wumpusId, random.nextInt(degree));
+
+        int numCaves = maze.getCaveCount();
+        int[] parent = new int[numCaves];
+        int[] queue = new int[numCaves];
+        Arrays.fill(parent, -2);
+        int head = 0;
+        int tail = 0;
+
+        queue[tail++] = playerId;
+        parent[playerId] = -1;
+
+        while (head < tail && parent[targetId] == -2) {
+            int current = queue[head++];
+
+            for (int i = 0; i < maze.getNeighborCount(current); i++) {
+                int neighbor = maze.getNeighbor(current, i);
+                if (parent[neighbor] == -2 && neighbor != wumpusId) {
+                    parent[neighbor] = current;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+
+        if (parent[targetId] == -2) {
+            return null;
+        }
+
+        boolean[] reserved = new boolean[numCaves];
+        for (int caveId = targetId; caveId != -1; caveId = parent[caveId]) {
+            reserved[caveId] = true;
+        }
+        return reserved;
+    }
+
+    /**
+     * Fallback for crowded boards: generates random candidates in parallel
+     * batches, the same way GameModel used to place hazards, and keeps the
+     * first winnable one. Its attempt count is its 1-based position in seed
+     * order, whatever else the batch generated.
+     */
+    private GameBoard generateByCandidates(int numCaves, int numPits, int numBats,
+                                           Random random, long seed) {
+        int cores = Math.max(1, Runtime.getRuntime().availableProcessors());
+        int attempts = 0;
+        GameBoard last = null;
+
+        while (attempts < MAX_CANDIDATE_ATTEMPTS) {
+            // Seed each candidate up front and scan them in seed order, so the
+            // chosen board does not depend on the number of cores
+            int batchSize = Math.min(cores, MAX_CANDIDATE_ATTEMPTS - attempts);
+            long[] seeds = new long[batchSize];
+            for (int i = 0; i < batchSize; i++) {
+                seeds[i] = random.nextLong();
+            }
+
+            GameBoard[] batch = IntStream.range(0, batchSize)
+                    .parallel()
+                    .mapToObj(i -> randomCandidate(numCaves, numPits, numBats, new GameRandom(seeds[i]), seed))
+                    .toArray(GameBoard[]::new);
+
+            for (GameBoard candidate : batch) {
+                attempts++;
+                if (candidate.isWinnable()) {
+                    return withAttempts(candidate, attempts);
+                }
+                last = candidate;
+            }
+        }
+
+        return withAttempts(last, attempts);
+    }
+
+    private GameBoard randomCandidate(int numCaves, int numPits, int numBats, Random candidateRandom,
+                                      long seed) {
+        Maze maze = new Maze(numCaves, candidateRandom);
+
+        ICave wumpusCave = maze.getRandomEmptyCave();
+        wumpusCave.setHasWumpus(true);
+
+        int[] pitIds = new int[numPits];
+        for (int i = 0; i < numPits; i++) {
+            ICave pitCave = maze.getRandomEmptyCave();
+            pitCave.setHasPit(true);
+            pitIds[i] = pitCave.getId();
+        }
+
+        int[] batIds = new int[numBats];
+        for (int i = 0; i < numBats; i++) {
+            ICave batCave = maze.getRandomEmptyCave();
+            batCave.setHasBat(true);
+            batIds[i] = batCave.getId();
+        }
+
+        int playerId = maze.getRandomEmptyCave().getId();
+        int wumpusId = wumpusCave.getId();
+        // Crowded settings retry a lot, and boards repeat up to relabeling
+        boolean winnable = AnalysisCache.shared().get(CanonicalBoard.of(maze, playerId),
+                AnalysisCache.WINNABLE, () -> isWinnable(maze, wumpusId, playerId));
+
+        return new GameBoard(maze, wumpusId, pitIds, batIds, playerId, 1, winnable, seed);
+    }
+
+    private static boolean isWinnable(IMaze maze, int wumpusId, int playerId) {
+        if (maze.isDangerous(playerId)) {
+            return false;
+        }
+
+        SafeRegions regions = SafeRegions.compute(maze);
+        int playerRegion = regions.getRegion(playerId);
+        for (int i = 0; i < maze.getNeighborCount(wumpusId); i++) {
+            if (regions.getRegion(maze.getNeighbor(wumpusId, i)) == playerRegion) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static GameBoard withAttempts(GameBoard board, int attempts) {
+        return new GameBoard(board.getMaze(), board.getWumpusCaveId(), board.getPitCaveIds(),
+                board.getBatCaveIds(), board.getPlayerCaveId(), attempts, board.isWinnable(), board.getSeed());
+    }
+}
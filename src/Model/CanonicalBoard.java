@@ -0,0 +1,169 @@
+package Model;
+
+import java.util.Arrays;
+
+/**
+ * A board in canonical form: its topology, hazard placement and player cave,
+ * relabeled so that boards which only differ in how their caves are numbered
+ * get equal forms. Used as the key of {@link AnalysisCache}, so equivalent
+ * boards are analysed once.
+ *
+ * The topology's canonical labeling fixes the numbering up to a symmetry of
+ * the topology; of those, the one giving the smallest player cave and hazard
+ * list is picked. With sparse hazards that costs O(symmetries * hazards), and
+ * O(hazards) for topologies above {@value Automorphisms#MAX_CAVES} caves,
+ * which are compared by their own numbering.
+ *
+ * A form never holds its topology, so cached keys do not keep large layouts
+ * alive: small topologies are compared by their canonical code, larger ones
+ * by {@link Topology#getId()}. Equality compares the full form, never just
+ * the hash.
+ */
+public final class CanonicalBoard {
+    // Canonical adjacency code, or null above Automorphisms.MAX_CAVES caves
+    private final long[] code;
+    private final long topologyId;
+    // The symmetry applied before the canonical labels; both null when
+    // canonical indexes are the original cave ids
+    private final int[] symmetry;
+    private final int[] labels;
+    private final int playerIndex;
+    // Sorted canonical index << 3 | hazard mask
+    private final int[] hazards;
+    private final long hash;
+
+    private CanonicalBoard(Topology topology, CanonicalLabeling labeling, int[] symmetry,
+                           int playerIndex, int[] hazards, boolean identity) {
+        code = labeling.getCode();
+        topologyId = topology.getId();
+        this.symmetry = identity ? null : symmetry;
+        labels = identity ? null : labeling.getLabels();
+        this.playerIndex = playerIndex;
+        this.hazards = hazards;
+
+        long h = mix(labeling.getHash() ^ playerIndex);
+        for (int entry : hazards) {
+            h = mix(h ^ entry);
+        }
+        hash = h;
+    }
+
+    /**
+     * The canonical form of a maze's current hazards with the player in a cave.
+     */
+    public static CanonicalBoard of(Maze maze, int playerCaveId) {
+        return of(maze.getTopology(), maze.hazardEntries(), playerCaveId);
+    }
+
+    static CanonicalBoard of(Topology topology, int[] entries, int playerCaveId) {
+        CanonicalLabeling labeling = topology.getCanonicalLabeling();
+        int[] labels = labeling.getLabels();
+
+        int[][] symmetries = topology.getAutomorphisms();
+        int[] bestSymmetry = null;
+        int bestPlayer = 0;
+        int[] best = null;
+        int[] candidate = new int[entries.length];
+        for (int[] symmetry : symmetries) {
+            int player = labels[symmetry[playerCaveId]];
+            if (best != null && player > bestPlayer) {
+                continue;
+            }
+            for (int i = 0; i < entries.length; i++) {
+                int entry = entries[i];
+                candidate[i] = labels[symmetry[entry >>> 3]] << 3 | (entry & 7);
+            }
+            Arrays.sort(candidate);
+            if (best == null || player < bestPlayer || Arrays.compare(candidate, best) < 0) {
+                bestSymmetry = symmetry;
+                bestPlayer = player;
+                best = candidate.clone();
+            }
+        }
+        boolean identity = labeling.isIdentity() && bestSymmetry == symmetries[0];
+        return new CanonicalBoard(topology, labeling, bestSymmetry, bestPlayer, best, identity);
+    }
+
+    /**
+     * @return The 64-bit hash of the canonical form
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Maps a cave id of the original board to its canonical index, so results
+     * that name caves can be stored independently of the numbering.
+     */
+    public int toCanonical(int caveId) {
+        if (labels == null) {
+            return caveId;
+        }
+        return labels[symmetry[caveId]];
+    }
+
+    /**
+     * Maps a canonical index back to the cave id of the original board.
+     */
+    public int fromCanonical(int index) {
+        if (labels == null) {
+            return index;
+        }
+        for (int caveId = 0; caveId < labels.length; caveId++) {
+            if (labels[symmetry[caveId]] == index) {
+                return caveId;
+            }
+        }
+        throw new IllegalArgumentException("No cave has canonical index " + index);
+    }
+
+    /**
+     * Rough memory held by this key. The code and labels are shared with the
+     * topology's labeling, but are counted in full since a cached key can
+     * outlive the topology.
+     */
+    int estimateBytes() {
+        int bytes = 64 + 16 + 4 * hazards.length;
+        if (code != null) {
+            bytes += 16 + 8 * code.length;
+        }
+        if (labels != null) {
+            bytes += 2 * (16 + 4 * labels.length);
+        }
+        return bytes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        CanonicalBoard other = (CanonicalBoard) o;
+        return hash == other.hash
+                && playerIndex == other.playerIndex
+                && Arrays.equals(hazards, other.hazards)
+                && (code != null || other.code != null
+                        ? Arrays.equals(code, other.code)
+                        : topologyId == other.topologyId);
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "CanonicalBoard[" + Long.toHexString(hash) + "]";
+    }
+
+    // SplitMix64 finalizer
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
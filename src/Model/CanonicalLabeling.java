@@ -0,0 +1,216 @@
+package Model;
+
+import java.util.Arrays;
+
+/**
+ * A relabeling of a topology's caves that is the same for every isomorphic
+ * topology, however its caves are numbered: two topologies are isomorphic
+ * exactly when their canonical codes are equal.
+ *
+ * Found by color refinement with individualization: caves are split into
+ * classes by their neighbors' classes until nothing changes, then every cave
+ * of the first ambiguous class is tried as a class of its own. Each fully
+ * split leaf gives a labeling, and the one with the smallest adjacency code
+ * wins. Only topologies of up to {@value Automorphisms#MAX_CAVES} caves are
+ * searched; larger ones keep their own numbering and are only equal to
+ * themselves.
+ */
+final class CanonicalLabeling {
+    // Leaves explored before giving up on a highly symmetric topology
+    private static final int MAX_LEAVES = 1 << 16;
+
+    private final int[] labels;
+    // Adjacency rows in canonical order, or null for large topologies
+    private final long[] code;
+    private final long hash;
+
+    private CanonicalLabeling(int[] labels, long[] code, long hash) {
+        this.labels = labels;
+        this.code = code;
+        this.hash = hash;
+    }
+
+    static CanonicalLabeling of(Topology topology) {
+        int numCaves = topology.getCaveCount();
+        if (numCaves <= Automorphisms.MAX_CAVES) {
+            Search search = new Search(topology);
+            if (search.run()) {
+                return new CanonicalLabeling(search.bestLabels, search.bestCode, hash(search.bestCode));
+            }
+        }
+
+        int[] identity = new int[numCaves];
+        for (int i = 0; i < numCaves; i++) {
+            identity[i] = i;
+        }
+        return new CanonicalLabeling(identity, null, CanonicalBoard.mix(topology.getId()));
+    }
+
+    /**
+     * @return The canonical index of every cave, by cave id
+     */
+    int[] getLabels() {
+        return labels;
+    }
+
+    /**
+     * Whether caves keep their own ids, as on large topologies.
+     */
+    boolean isIdentity() {
+        return code == null;
+    }
+
+    long getHash() {
+        return hash;
+    }
+
+    /**
+     * @return The adjacency rows in canonical order, equal exactly for
+     *         isomorphic topologies; null for large topologies
+     */
+    long[] getCode() {
+        return code;
+    }
+
+    private static long hash(long[] code) {
+        long h = code.length;
+        for (long row : code) {
+            h = CanonicalBoard.mix(h ^ row);
+        }
+        return h;
+    }
+
+    private static final class Search {
+        private final int numCaves;
+        private final int[][] adjacency;
+
+        private int[] bestLabels;
+        private long[] bestCode;
+        private int leaves;
+
+        Search(Topology topology) {
+            numCaves = topology.getCaveCount();
+            adjacency = new int[numCaves][];
+            for (int caveId = 0; caveId < numCaves; caveId++) {
+                adjacency[caveId] = new int[topology.getNeighborCount(caveId)];
+                for (int i = 0; i < adjacency[caveId].length; i++) {
+                    adjacency[caveId][i] = topology.getNeighbor(caveId, i);
+                }
+            }
+        }
+
+        /**
+         * @return false if the leaf budget ran out
+         */
+        boolean run() {
+            int[] colors = refine(new int[numCaves]);
+            explore(colors);
+            return leaves <= MAX_LEAVES;
+        }
+
+        private void explore(int[] colors) {
+            if (leaves > MAX_LEAVES) {
+                return;
+            }
+
+            // The smallest color shared by several caves; none means a leaf
+            int[] counts = new int[numCaves];
+            for (int color : colors) {
+                counts[color]++;
+            }
+            int target = -1;
+            for (int color = 0; color < numCaves; color++) {
+                if (counts[color] > 1) {
+                    target = color;
+                    break;
+                }
+            }
+            if (target < 0) {
+                leaves++;
+                offerLeaf(colors);
+                return;
+            }
+
+            for (int caveId = 0; caveId < numCaves; caveId++) {
+                if (colors[caveId] != target) {
+                    continue;
+                }
+                // Sort this cave before the rest of its class, then refine
+                int[] split = new int[numCaves];
+                for (int i = 0; i < numCaves; i++) {
+                    split[i] = colors[i] * 2 + 1;
+                }
+                split[caveId] = colors[caveId] * 2;
+                explore(refine(split));
+            }
+        }
+
+        private void offerLeaf(int[] labels) {
+            long[] code = new long[numCaves];
+            for (int caveId = 0; caveId < numCaves; caveId++) {
+                long row = 0;
+                for (int neighbor : adjacency[caveId]) {
+                    row |= 1L << labels[neighbor];
+                }
+                code[labels[caveId]] = row;
+            }
+            if (bestCode == null || compare(code, bestCode) < 0) {
+                bestCode = code;
+                bestLabels = labels;
+            }
+        }
+
+        private static int compare(long[] a, long[] b) {
+            for (int i = 0; i < a.length; i++) {
+                int c = Long.compareUnsigned(a[i], b[i]);
+                if (c != 0) {
+                    return c;
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * Splits classes by the sorted classes of each cave's neighbors until
+         * the number of classes stops growing. New classes are numbered by
+         * sorting their signatures, so the result does not depend on cave ids.
+         *
+         * @return Colors numbered densely from 0
+         */
+        private int[] refine(int[] colors) {
+            int classes = -1;
+            while (true) {
+                long[][] signatures = new long[numCaves][];
+                for (int caveId = 0; caveId < numCaves; caveId++) {
+                    long[] signature = new long[adjacency[caveId].length + 1];
+                    for (int i = 0; i < adjacency[caveId].length; i++) {
+                        signature[i + 1] = colors[adjacency[caveId][i]];
+                    }
+                    Arrays.sort(signature, 1, signature.length);
+                    signature[0] = colors[caveId];
+                    signatures[caveId] = signature;
+                }
+
+                Integer[] order = new Integer[numCaves];
+                for (int i = 0; i < numCaves; i++) {
+                    order[i] = i;
+                }
+                Arrays.sort(order, (a, b) -> Arrays.compare(signatures[a], signatures[b]));
+
+                int[] refined = new int[numCaves];
+                int color = 0;
+                for (int i = 0; i < numCaves; i++) {
+                    if (i > 0 && Arrays.compare(signatures[order[i]], signatures[order[i - 1]]) != 0) {
+                        color++;
+                    }
+                    refined[order[i]] = color;
+                }
+                if (color + 1 == classes) {
+                    return refined;
+                }
+                classes = color + 1;
+                colors = refined;
+            }
+        }
+    }
+}
@@ -1,22 +1,17 @@
 package Model;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.List;
 import java.util.Objects;
 
 public class Cave implements ICave {
     private int id;
-    private List<ICave> neighbors;
-    private boolean hasPit;
-    private boolean hasWumpus;
-    private boolean hasBat;
+    private IMaze maze;
+    private List<ICave> neighborView;
 
-    public Cave(int id) {
+    public Cave(int id, IMaze maze) {
         this.id = id;
-        this.neighbors = new ArrayList<>();
-        this.hasPit = false;
-        this.hasWumpus = false;
-        this.hasBat = false;
+        this.maze = maze;
     }
 
     @Override
@@ -24,55 +19,65 @@ public class Cave implements ICave {
         return id;
     }
 
-    @Override
-    public void addNeighbor(ICave cave) {
-        if (!neighbors.contains(cave)) {
-            neighbors.add(cave);
-            // Avoid infinite recursion by checking if the other cave already has this as a neighbor
-            if (!cave.getNeighbors().contains(this)) {
-                cave.addNeighbor(this);
-            }
-        }
-    }
-
+    /**
+     * Read-only view of this cave's neighbors, backed by the maze topology.
+     * Prefer {@link IMaze#getNeighbor(int, int)} on hot paths.
+     */
     @Override
     public List<ICave> getNeighbors() {
-        return new ArrayList<>(neighbors);
+        if (neighborView == null) {
+            neighborView = new AbstractList<ICave>() {
+                @Override
+                public ICave get(int index) {
+                    if (index < 0 || index >= size()) {
+                        throw new IndexOutOfBoundsException("Index: " + index);
+                    }
+                    return maze.getCaveById(maze.getNeighbor(id, index));
+                }
+
+                @Override
+                public int size() {
+                    return maze.getNeighborCount(id);
+                }
+            };
+        }
+        return neighborView;
     }
 
+    // Hazard flags are stored in the maze's hazard layers
     @Override
     public boolean hasPit() {
-        return hasPit;
+        return maze.hasPit(id);
     }
 
     @Override
     public void setHasPit(boolean hasPit) {
-        this.hasPit = hasPit;
+        maze.setPit(id, hasPit);
     }
 
     @Override
     public boolean hasWumpus() {
-        return hasWumpus;
+        return maze.hasWumpus(id);
     }
 
     @Override
     public void setHasWumpus(boolean hasWumpus) {
-        this.hasWumpus = hasWumpus;
+        maze.setWumpus(id, hasWumpus);
     }
 
     @Override
     public boolean hasBat() {
-        return hasBat;
+        return maze.hasBat(id);
     }
 
     @Override
     public void setHasBat(boolean hasBat) {
-        this.hasBat = hasBat;
+        maze.setBat(id, hasBat);
     }
 
     @Override
     public boolean isDangerous() {
-        return hasPit || hasWumpus;
+        return maze.isDangerous(id);
     }
 
     @Override
@@ -0,0 +1,141 @@
+package Model;
+
+import Metrics.Counter;
+import Metrics.Metrics;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Shortest path lengths, in moves, between any two caves of a topology.
+ *
+ * Small topologies get an exact table of all pairs, built on the first query,
+ * so a query is a single array read. Larger ones run a breadth-first search
+ * from the source on demand and keep the most recently used distance rows,
+ * within a fixed budget of entries, so memory stays bounded at any size.
+ *
+ * Safe to use from several threads.
+ */
+public final class DistanceOracle {
+    // Caves up to which all pairs are stored; 2 MB of table at the limit
+    static final int EXACT_LIMIT = 1024;
+
+    // Cached distance entries for large topologies, 16 MB in total
+    private static final int ROW_BUDGET = 1 << 22;
+
+    private static final Counter ROW_HITS = Metrics.counter("distance.rowHits");
+    private static final Counter ROW_MISSES = Metrics.counter("distance.rowMisses");
+
+    private final Topology topology;
+    private final int numCaves;
+
+    // All pairs: table[from * numCaves + to], or -1 if unreachable
+    private volatile short[] table;
+
+    // Least recently used rows first; guarded by itself
+    private final LinkedHashMap<Integer, int[]> rows;
+
+    DistanceOracle(Topology topology) {
+        this.topology = topology;
+        this.numCaves = topology.getCaveCount();
+
+        int maxRows = Math.max(2, ROW_BUDGET / Math.max(1, numCaves));
+        rows = new LinkedHashMap<Integer, int[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, int[]> eldest) {
+                return size() > maxRows;
+            }
+        };
+    }
+
+    /**
+     * On large topologies a miss searches from the first cave, so callers
+     * asking about many caves relative to one should pass that one first.
+     *
+     * @return The number of moves from one cave to the other, or -1 if the
+     *         other cave cannot be reached
+     */
+    public int distance(int from, int to) {
+        if (from == to) {
+            return 0;
+        }
+        if (numCaves <= EXACT_LIMIT) {
+            return exactTable()[from * numCaves + to];
+        }
+
+        // Caves are connected both ways, so a row from either end will do
+        synchronized (rows) {
+            int[] row = rows.get(from);
+            if (row == null) {
+                row = rows.get(to);
+                if (row != null) {
+                    ROW_HITS.increment();
+                    return row[from];
+                }
+            } else {
+                ROW_HITS.increment();
+                return row[to];
+            }
+        }
+
+        // Search outside the lock; two threads may compute the same row
+        ROW_MISSES.increment();
+        int[] row = new int[numCaves];
+        search(from, row, new int[numCaves]);
+        synchronized (rows) {
+            rows.put(from, row);
+        }
+        return row[to];
+    }
+
+    private short[] exactTable() {
+        short[] exact = table;
+        if (exact == null) {
+            synchronized (this) {
+                exact = table;
+                if (exact == null) {
+                    exact = buildTable();
+                    table = exact;
+                }
+            }
+        }
+        return exact;
+    }
+
+    private short[] buildTable() {
+        short[] exact = new short[numCaves * numCaves];
+        int[] row = new int[numCaves];
+        int[] queue = new int[numCaves];
+        for (int from = 0; from < numCaves; from++) {
+            search(from, row, queue);
+            for (int to = 0; to < numCaves; to++) {
+                exact[from * numCaves + to] = (short) row[to];
+            }
+        }
+        return exact;
+    }
+
+    /**
+     * Breadth-first search from a cave, filling row[] with the distances.
+     */
+    private void search(int from, int[] row, int[] queue) {
+        Arrays.fill(row, -1);
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = from;
+        row[from] = 0;
+
+        while (head < tail) {
+            int current = queue[head++];
+            int next = row[current] + 1;
+            for (int i = 0; i < topology.getNeighborCount(current); i++) {
+                int neighbor = topology.getNeighbor(current, i);
+                if (row[neighbor] < 0) {
+                    row[neighbor] = next;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package Model;
+
+import java.util.Random;
+
+/**
+ * A generated board: a maze with its hazards already placed, plus the
+ * player's starting cave and some bookkeeping from generation.
+ */
+public class GameBoard {
+    private final Maze maze;
+    private final int wumpusCaveId;
+    private final int[] pitCaveIds;
+    private final int[] batCaveIds;
+    private final int playerCaveId;
+    private final int attempts;
+    private final boolean winnable;
+    private final long seed;
+
+    // Computed on first use; racing threads compute equal forms
+    private CanonicalBoard canonical;
+
+    public GameBoard(Maze maze, int wumpusCaveId, int[] pitCaveIds, int[] batCaveIds,
+                     int playerCaveId, int attempts, boolean winnable, long seed) {
+        this.maze = maze;
+        this.wumpusCaveId = wumpusCaveId;
+        this.pitCaveIds = pitCaveIds;
+        this.batCaveIds = batCaveIds;
+        this.playerCaveId = playerCaveId;
+        this.attempts = attempts;
+        this.winnable = winnable;
+        this.seed = seed;
+    }
+
+    public Maze getMaze() {
+        return maze;
+    }
+
+    public int getWumpusCaveId() {
+        return wumpusCaveId;
+    }
+
+    public int[] getPitCaveIds() {
+        return pitCaveIds.clone();
+    }
+
+    public int[] getBatCaveIds() {
+        return batCaveIds.clone();
+    }
+
+    public int getPlayerCaveId() {
+        return playerCaveId;
+    }
+
+    /**
+     * @return How many candidate boards were generated to produce this one
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public boolean isWinnable() {
+        return winnable;
+    }
+
+    /**
+     * The seed this board was generated from;
+     * {@link BoardGenerator#generate(long, int, int, int)} rebuilds it exactly.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * The canonical form of this board as generated, ignoring any changes
+     * made to its maze since.
+     */
+    public CanonicalBoard getCanonicalForm() {
+        CanonicalBoard form = canonical;
+        if (form == null) {
+            form = CanonicalBoard.of(withHazards(), playerCaveId);
+            canonical = form;
+        }
+        return form;
+    }
+
+    /**
+     * A shortest way to win the board as generated, shared through
+     * {@link AnalysisCache} with every equivalent board.
+     *
+     * @return The caves to move through from the player's cave, ending next
+     *         to the Wumpus; empty if the player starts there, or null if the
+     *         board cannot be won
+     */
+    public int[] getSolution() {
+        CanonicalBoard form = getCanonicalForm();
+        // Stored with the player's cave first, so an empty route means none
+        int[] route = AnalysisCache.shared().get(form, AnalysisCache.SOLUTION, () -> {
+            int[] found = WinnabilityChecker.findWinningRoute(withHazards(), playerCaveId);
+            if (found == null) {
+                return new int[0];
+            }
+            int[] stored = new int[found.length + 1];
+            stored[0] = form.toCanonical(playerCaveId);
+            for (int i = 0; i < found.length; i++) {
+                stored[i + 1] = form.toCanonical(found[i]);
+            }
+            return stored;
+        });
+
+        if (route.length == 0) {
+            return null;
+        }
+        int[] solution = new int[route.length - 1];
+        for (int i = 0; i < solution.length; i++) {
+            solution[i] = form.fromCanonical(route[i + 1]);
+        }
+        return solution;
+    }
+
+    /**
+     * How hard the board is: the moves of {@link #getSolution()} plus one for
+     * every cave on it where a hazard can be sensed, since those are the caves
+     * a player hesitates in. -1 if the board cannot be won.
+     */
+    public int getDifficulty() {
+        return AnalysisCache.shared().get(getCanonicalForm(), AnalysisCache.DIFFICULTY, () -> {
+            int[] solution = getSolution();
+            if (solution == null) {
+                return -1;
+            }
+            Maze generated = withHazards();
+            int difficulty = solution.length;
+            if (generated.getSenseMask(playerCaveId) != 0) {
+                difficulty++;
+            }
+            for (int caveId : solution) {
+                if (generated.getSenseMask(caveId) != 0) {
+                    difficulty++;
+                }
+            }
+            return difficulty;
+        });
+    }
+
+    /**
+     * A fresh maze on the same topology holding the hazards as generated.
+     */
+    private Maze withHazards() {
+        Maze generated = new Maze(maze.getTopology(), new Random(seed));
+        generated.setWumpus(wumpusCaveId, true);
+        for (int caveId : pitCaveIds) {
+            generated.setPit(caveId, true);
+        }
+        for (int caveId : batCaveIds) {
+            generated.setBat(caveId, true);
+        }
+        return generated;
+    }
+}
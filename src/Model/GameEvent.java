@@ -0,0 +1,194 @@
+package Model;
+
+/**
+ * A typed change notification from the game model. Every event carries the
+ * state a view needs after the action that caused it: the senses in the
+ * player's cave, the arrows left, the outcome and whether the game is still
+ * winnable. All events of one action see the same, final state.
+ */
+public abstract class GameEvent {
+    private final Senses senses;
+    private final int arrows;
+    private final boolean winnable;
+    private final boolean winnabilityKnown;
+    private final GameOutcome outcome;
+
+    GameEvent(Senses senses, int arrows, boolean winnable, boolean winnabilityKnown, GameOutcome outcome) {
+        this.senses = senses;
+        this.arrows = arrows;
+        this.winnable = winnable;
+        this.winnabilityKnown = winnabilityKnown;
+        this.outcome = outcome;
+    }
+
+    public Senses getSenses() {
+        return senses;
+    }
+
+    public int getArrows() {
+        return arrows;
+    }
+
+    public boolean isWinnable() {
+        return winnable;
+    }
+
+    /**
+     * False when the maze is too large to analyse inline and winnability is
+     * not cached yet; see {@link IGameModel#prepareWinnabilityAnalysis()}.
+     */
+    public boolean isWinnabilityKnown() {
+        return winnabilityKnown;
+    }
+
+    public GameOutcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Calls the listener method matching this event's type.
+     */
+    public abstract void dispatchTo(GameEventListener listener);
+
+    /**
+     * The whole game state was replaced: a new game, a restored snapshot or
+     * a jump in the undo/redo timeline.
+     */
+    public static final class GameReset extends GameEvent {
+        private final int playerCaveId;
+
+        GameReset(int playerCaveId, Senses senses, int arrows, boolean winnable,
+                  boolean winnabilityKnown, GameOutcome outcome) {
+            super(senses, arrows, winnable, winnabilityKnown, outcome);
+            this.playerCaveId = playerCaveId;
+        }
+
+        public int getPlayerCaveId() {
+            return playerCaveId;
+        }
+
+        @Override
+        public void dispatchTo(GameEventListener listener) {
+            listener.gameReset(this);
+        }
+    }
+
+    public static final class PlayerMoved extends GameEvent {
+        private final int fromCaveId;
+        private final int toCaveId;
+
+        PlayerMoved(int fromCaveId, int toCaveId, Senses senses, int arrows, boolean winnable,
+                    boolean winnabilityKnown, GameOutcome outcome) {
+            super(senses, arrows, winnable, winnabilityKnown, outcome);
+            this.fromCaveId = fromCaveId;
+            this.toCaveId = toCaveId;
+        }
+
+        public int getFromCaveId() {
+            return fromCaveId;
+        }
+
+        public int getToCaveId() {
+            return toCaveId;
+        }
+
+        @Override
+        public void dispatchTo(GameEventListener listener) {
+            listener.playerMoved(this);
+        }
+    }
+
+    public static final class ArrowShot extends GameEvent {
+        private final int targetCaveId;
+        private final boolean hit;
+
+        ArrowShot(int targetCaveId, boolean hit, Senses senses, int arrows, boolean winnable,
+                  boolean winnabilityKnown, GameOutcome outcome) {
+            super(senses, arrows, winnable, winnabilityKnown, outcome);
+            this.targetCaveId = targetCaveId;
+            this.hit = hit;
+        }
+
+        public int getTargetCaveId() {
+            return targetCaveId;
+        }
+
+        public boolean isHit() {
+            return hit;
+        }
+
+        @Override
+        public void dispatchTo(GameEventListener listener) {
+            listener.arrowShot(this);
+        }
+    }
+
+    /**
+     * Bats carried the player from the cave they entered to a random cave.
+     */
+    public static final class BatTransport extends GameEvent {
+        private final int fromCaveId;
+        private final int toCaveId;
+
+        BatTransport(int fromCaveId, int toCaveId, Senses senses, int arrows, boolean winnable,
+                     boolean winnabilityKnown, GameOutcome outcome) {
+            super(senses, arrows, winnable, winnabilityKnown, outcome);
+            this.fromCaveId = fromCaveId;
+            this.toCaveId = toCaveId;
+        }
+
+        public int getFromCaveId() {
+            return fromCaveId;
+        }
+
+        public int getToCaveId() {
+            return toCaveId;
+        }
+
+        @Override
+        public void dispatchTo(GameEventListener listener) {
+            listener.batTransport(this);
+        }
+    }
+
+    /**
+     * The game ended; the cause is the event's outcome.
+     */
+    public static final class GameOver extends GameEvent {
+        GameOver(Senses senses, int arrows, boolean winnable, boolean winnabilityKnown, GameOutcome outcome) {
+            super(senses, arrows, winnable, winnabilityKnown, outcome);
+        }
+
+        public GameOutcome getCause() {
+            return getOutcome();
+        }
+
+        @Override
+        public void dispatchTo(GameEventListener listener) {
+            listener.gameOver(this);
+        }
+    }
+
+    /**
+     * A hazard was added to or removed from a cave, or -1 if the hazard
+     * layers changed as a whole.
+     */
+    public static final class HazardChanged extends GameEvent {
+        private final int caveId;
+
+        HazardChanged(int caveId, Senses senses, int arrows, boolean winnable,
+                      boolean winnabilityKnown, GameOutcome outcome) {
+            super(senses, arrows, winnable, winnabilityKnown, outcome);
+            this.caveId = caveId;
+        }
+
+        public int getCaveId() {
+            return caveId;
+        }
+
+        @Override
+        public void dispatchTo(GameEventListener listener) {
+            listener.hazardChanged(this);
+        }
+    }
+}
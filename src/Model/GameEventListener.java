@@ -0,0 +1,29 @@
+package Model;
+
+/**
+ * Receives typed game events. Every method has an empty default, so a
+ * listener only overrides the events it cares about.
+ */
+public interface GameEventListener {
+    default void gameReset(GameEvent.GameReset event) {
+    }
+
+    default void playerMoved(GameEvent.PlayerMoved event) {
+    }
+
+    default void arrowShot(GameEvent.ArrowShot event) {
+    }
+
+    default void batTransport(GameEvent.BatTransport event) {
+    }
+
+    default void gameOver(GameEvent.GameOver event) {
+    }
+
+    default void hazardChanged(GameEvent.HazardChanged event) {
+    }
+
+    // Called once after all events of one model action have been delivered
+    default void eventsDelivered() {
+    }
+}
@@ -0,0 +1,280 @@
+package Model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.zip.CRC32;
+
+/**
+ * Versioned binary save files for a whole game.
+ *
+ * Layout, little-endian:
+ * <pre>
+ *   int    magic "WUMP"
+ *   short  format version
+ *   short  reserved, 0
+ *   int    cave count n
+ *   int    neighbor entry count m
+ *   int    player cave id
+ *   int    Wumpus cave id
+ *   int    arrows left
+ *   byte   outcome (GameOutcome ordinal)
+ *   byte[3] padding
+ *   int[n + 1] neighbor offsets  \ topology in compressed sparse row form,
+ *   int[m]     neighbor targets  / exactly as the maze stores it
+ *   long[(n + 63) / 64] x 3      pit, bat and Wumpus bitsets
+ *   int    CRC32 of everything above
+ * </pre>
+ *
+ * Loading memory-maps the file and bulk-copies each section into the arrays
+ * the maze uses, so it costs a few sequential passes and no per-edge work.
+ * Saving writes a temporary file next to the target and moves it into place,
+ * so a crash never leaves a half-written save behind.
+ */
+public final class GameFile {
+    public static final int VERSION = 1;
+
+    private static final int MAGIC = 0x504D5557; // "WUMP" in little-endian order
+    private static final int HEADER_SIZE = 32;
+
+    private GameFile() {
+    }
+
+    /**
+     * Writes the snapshot to the file atomically, replacing any existing file.
+     * Snapshots are immutable, so this may run off the game thread.
+     */
+    public static void save(GameSnapshot snapshot, Path path) throws IOException {
+        IMaze maze = snapshot.getMaze();
+        HazardLayers hazards = snapshot.getHazards();
+        int numCaves = maze.getCaveCount();
+        int words = bitsetWords(numCaves);
+
+        int entries = 0;
+        for (int caveId = 0; caveId < numCaves; caveId++) {
+            entries += maze.getNeighborCount(caveId);
+        }
+
+        long size = fileSize(numCaves, entries, words);
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Maze too large to save: " + numCaves + " caves");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putShort((short) VERSION);
+        buffer.putShort((short) 0);
+        buffer.putInt(numCaves);
+        buffer.putInt(entries);
+        buffer.putInt(snapshot.getPlayerCaveId());
+        buffer.putInt(snapshot.getWumpusCaveId());
+        buffer.putInt(snapshot.getArrows());
+        buffer.put((byte) snapshot.getOutcome().ordinal());
+        buffer.put(new byte[3]);
+
+        int offset = 0;
+        buffer.putInt(offset);
+        for (int caveId = 0; caveId < numCaves; caveId++) {
+            offset += maze.getNeighborCount(caveId);
+            buffer.putInt(offset);
+        }
+        for (int caveId = 0; caveId < numCaves; caveId++) {
+            for (int i = 0; i < maze.getNeighborCount(caveId); i++) {
+                buffer.putInt(maze.getNeighbor(caveId, i));
+            }
+        }
+
+        putBits(buffer, hazards.toBitSet(HazardLayers.PIT), words);
+        putBits(buffer, hazards.toBitSet(HazardLayers.BAT), words);
+        putBits(buffer, hazards.toBitSet(HazardLayers.WUMPUS), words);
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+
+        writeAtomically(buffer, path);
+    }
+
+    /**
+     * Reads a save file into a snapshot of a new game; start playing it with
+     * {@link IGameModel#initialize(GameSnapshot)}.
+     */
+    public static GameSnapshot load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE + 4 || fileSize > Integer.MAX_VALUE) {
+                throw new IOException("Not a Hunt the Wumpus save file: " + path);
+            }
+
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a Hunt the Wumpus save file: " + path);
+            }
+            int version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported save file version " + version + ": " + path);
+            }
+            buffer.getShort();
+
+            int numCaves = buffer.getInt();
+            int entries = buffer.getInt();
+            if (numCaves <= 0 || entries < 0
+                    || fileSize(numCaves, entries, bitsetWords(numCaves)) != fileSize) {
+                throw new IOException("Corrupt save file, bad size: " + path);
+            }
+
+            // Check the whole file before trusting any of it
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate().position(0).limit((int) fileSize - 4));
+            if ((int) crc.getValue() != buffer.getInt((int) fileSize - 4)) {
+                throw new IOException("Corrupt save file, checksum mismatch: " + path);
+            }
+
+            int playerCaveId = buffer.getInt();
+            int wumpusCaveId = buffer.getInt();
+            int arrows = buffer.getInt();
+            int outcomeIndex = buffer.get();
+            buffer.position(HEADER_SIZE);
+
+            GameOutcome[] outcomes = GameOutcome.values();
+            if (playerCaveId < 0 || playerCaveId >= numCaves || wumpusCaveId < 0
+                    || wumpusCaveId >= numCaves || arrows < 0
+                    || outcomeIndex < 0 || outcomeIndex >= outcomes.length) {
+                throw new IOException("Corrupt save file, bad game state: " + path);
+            }
+
+            int[] neighborOffsets = new int[numCaves + 1];
+            int[] neighborTargets = new int[entries];
+            buffer.asIntBuffer().get(neighborOffsets);
+            buffer.position(buffer.position() + 4 * neighborOffsets.length);
+            buffer.asIntBuffer().get(neighborTargets);
+            buffer.position(buffer.position() + 4 * neighborTargets.length);
+            checkTopology(neighborOffsets, neighborTargets, path);
+
+            int words = bitsetWords(numCaves);
+            BitSet pits = getBits(buffer, words, numCaves, path);
+            BitSet bats = getBits(buffer, words, numCaves, path);
+            BitSet wumpus = getBits(buffer, words, numCaves, path);
+            // The model tracks exactly one Wumpus, in the header's cave
+            if (wumpus.cardinality() != 1 || !wumpus.get(wumpusCaveId)) {
+                throw new IOException("Corrupt save file, bad game state: " + path);
+            }
+
+            Maze maze = new Maze(neighborOffsets, neighborTargets, new GameRandom());
+            HazardLayers hazards = HazardLayers.fromBits(pits, bats, wumpus);
+            maze.restoreHazards(hazards);
+
+            // Saves carry no seed, so a loaded game gets fresh play randomness
+            return new GameSnapshot(maze, hazards, wumpusCaveId, playerCaveId, arrows,
+                    outcomes[outcomeIndex], new GameRandom().nextLong(), -1, 0);
+        }
+    }
+
+    private static int bitsetWords(int numCaves) {
+        return (numCaves + 63) / 64;
+    }
+
+    private static long fileSize(int numCaves, int entries, int words) {
+        return HEADER_SIZE + 4L * (numCaves + 1) + 4L * entries + 3L * 8 * words + 4;
+    }
+
+    private static void putBits(ByteBuffer buffer, BitSet bits, int words) {
+        long[] data = bits.toLongArray();
+        for (int i = 0; i < words; i++) {
+            buffer.putLong(i < data.length ? data[i] : 0L);
+        }
+    }
+
+    private static BitSet getBits(ByteBuffer buffer, int words, int numCaves, Path path) throws IOException {
+        BitSet bits = BitSet.valueOf(buffer.asLongBuffer().limit(words));
+        buffer.position(buffer.position() + 8 * words);
+        if (bits.length() > numCaves) {
+            throw new IOException("Corrupt save file, hazard outside the maze: " + path);
+        }
+        return bits;
+    }
+
+    private static void checkTopology(int[] offsets, int[] targets, Path path) throws IOException {
+        int numCaves = offsets.length - 1;
+        if (offsets[0] != 0 || offsets[numCaves] != targets.length) {
+            throw new IOException("Corrupt save file, bad topology: " + path);
+        }
+        for (int i = 0; i < numCaves; i++) {
+            if (offsets[i + 1] < offsets[i]) {
+                throw new IOException("Corrupt save file, bad topology: " + path);
+            }
+        }
+        int[] inDegrees = new int[numCaves];
+        for (int i = 0; i < numCaves; i++) {
+            for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                int target = targets[k];
+                if (target < 0 || target >= numCaves || target == i) {
+                    throw new IOException("Corrupt save file, bad topology: " + path);
+                }
+                inDegrees[target]++;
+            }
+        }
+
+        // Tunnels run both ways: every cave must appear in the lists of
+        // exactly the caves in its own list, each once. The transposed lists
+        // come out sorted, so comparing them with the sorted lists is O(E log d)
+        for (int i = 0; i < numCaves; i++) {
+            if (inDegrees[i] != offsets[i + 1] - offsets[i]) {
+                throw new IOException("Corrupt save file, one-way tunnel: " + path);
+            }
+        }
+        int[] transposed = new int[targets.length];
+        int[] next = Arrays.copyOf(offsets, numCaves);
+        for (int i = 0; i < numCaves; i++) {
+            for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                transposed[next[targets[k]]++] = i;
+            }
+        }
+        int[] sorted = targets.clone();
+        for (int i = 0; i < numCaves; i++) {
+            Arrays.sort(sorted, offsets[i], offsets[i + 1]);
+            for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                if (k > offsets[i] && sorted[k] == sorted[k - 1]) {
+                    throw new IOException("Corrupt save file, bad topology: " + path);
+                }
+                if (sorted[k] != transposed[k]) {
+                    throw new IOException("Corrupt save file, one-way tunnel: " + path);
+                }
+            }
+        }
+    }
+
+    private static void writeAtomically(ByteBuffer buffer, Path path) throws IOException {
+        Path target = path.toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -1,158 +1,484 @@
 package Model;
 
+import Metrics.Histogram;
+import Metrics.JfrEvents;
+import Metrics.Metrics;
+
 import java.util.*;
 
 public class GameModel implements IGameModel {
+    // Up to this size events analyse winnability inline, it costs less than
+    // handing the work to another thread
+    private static final int INLINE_ANALYSIS_CAVES = 4096;
+
+    // Game seeds are split into numbered streams; play uses this one
+    private static final int PLAY_STREAM = 1;
+
+    // Most caves a moving Wumpus may visit while patching the safe regions
+    // before they are recomputed instead
+    private static final int REGION_PATCH_BUDGET = 1 << 16;
+
+    // Winnability is only timed when the cached safe regions are stale
+    private static final Histogram WINNABILITY_TIME = Metrics.histogram("winnable.compute.nanos");
+    private static final Histogram DISPATCH_TIME = Metrics.histogram("listeners.dispatch.nanos");
+
     private IMaze maze;
     private IPlayer player;
     private ICave wumpusCave;
-    private List<ICave> pitCaves;
-    private List<ICave> batCaves;
     private Random random;
+    private BoardGenerator boardGenerator;
+
+    // Pit-or-bat coin flips and bat flights, reseeded from every board's seed
+    private GameRandom playRandom;
+
+    // Moves and shots of the current game, for exact replay
+    private ActionLog actionLog;
+    private boolean actionLogEnabled;
+
+    // Classic rules: a missed shot wakes the Wumpus and bats fly off after
+    // carrying the player. The rule of the current game, the one the next
+    // game will use, and the hazard that moved during the last action, if any
+    private boolean movingHazards;
+    private boolean pendingMovingHazards;
+    private int movedHazardFrom = -1;
+    private int movedHazardTo = -1;
+
     private boolean gameOver;
     private String gameStatus; // "ongoing", "won", "lost"
-
-    // For observer pattern
-    private List<GameModelListener> listeners;
+    private GameOutcome outcome;
+    private boolean listenersEnabled;
+
+    // Timeline of states for undo/redo; historyCursor is the current state
+    private List<GameSnapshot> history;
+    private int historyCursor;
+    private boolean historyEnabled;
+
+    // Winnability cache: hazards rarely change, so safe regions are reused
+    // until the maze or its hazard version changes
+    private SafeRegions safeRegions;
+    private IMaze safeRegionsMaze;
+    private int safeRegionsVersion;
+    private int[] wumpusRegions;
+
+    // Canonical form of the current hazards and player cave, the key for the
+    // shared analysis cache; rebuilt when any of them changes
+    private CanonicalBoard boardKey;
+    private IMaze boardKeyMaze;
+    private int boardKeyVersion;
+    private int boardKeyCaveId = -1;
+
+    // For observer pattern; old GameModelListeners are wrapped in adapters
+    private List<GameEventListener> listeners;
 
     public GameModel() {
-        random = new Random();
+        this(new GameRandom());
+    }
+
+    /**
+     * Creates a model whose board seeds are drawn from the given random
+     * source, so a seeded source makes games reproducible. Each board's seed
+     * also seeds the hazard outcomes of the game played on it.
+     */
+    public GameModel(Random random) {
+        this.random = random;
+        boardGenerator = new BoardGenerator(random);
+        playRandom = new GameRandom();
+        actionLogEnabled = true;
         listeners = new ArrayList<>();
+        listenersEnabled = true;
+        history = new ArrayList<>();
+        historyEnabled = true;
         gameStatus = "ongoing";
-        pitCaves = new ArrayList<>();
-        batCaves = new ArrayList<>();
+        outcome = GameOutcome.ONGOING;
     }
 
     @Override
     public void initialize(int numCaves, int numPits, int numBats, int numArrows) {
-        maze = new Maze(numCaves);
-        pitCaves = new ArrayList<>();
-        batCaves = new ArrayList<>();
-        gameOver = false;
-        gameStatus = "ongoing";
-
-        // Place Wumpus
-        wumpusCave = maze.getRandomEmptyCave();
-        wumpusCave.setHasWumpus(true);
+        initialize(boardGenerator.generate(numCaves, numPits, numBats), numArrows);
+    }
 
-        // Place pits
-        for (int i = 0; i < numPits; i++) {
-            ICave pitCave = maze.getRandomEmptyCave();
-            pitCave.setHasPit(true);
-            pitCaves.add(pitCave);
-        }
+    @Override
+    public void initialize(GameBoard board, int numArrows) {
+        maze = board.getMaze();
+        movingHazards = pendingMovingHazards;
+        applyOutcome(GameOutcome.ONGOING);
 
-        // Place bats
-        for (int i = 0; i < numBats; i++) {
-            ICave batCave = maze.getRandomEmptyCave();
-            batCave.setHasBat(true);
-            batCaves.add(batCave);
-        }
+        // Hazards are already placed on the board's maze
+        wumpusCave = maze.getCaveById(board.getWumpusCaveId());
 
         // Place player
-        ICave playerCave = maze.getRandomEmptyCave();
+        ICave playerCave = maze.getCaveById(board.getPlayerCaveId());
         player = new Player(playerCave, numArrows);
 
-        notifyListeners();
+        playRandom.setSeed(GameRandom.streamSeed(board.getSeed(), PLAY_STREAM));
+        actionLog = actionLogEnabled
+                ? new ActionLog(board.getSeed(), maze.getCaveCount(), board.getPitCaveIds().length,
+                        board.getBatCaveIds().length, numArrows, movingHazards)
+                : null;
+
+        // Start a fresh timeline
+        history.clear();
+        historyCursor = -1;
+        recordHistory();
+
+        publishReset();
+    }
+
+    @Override
+    public void initialize(GameSnapshot snapshot) {
+        maze = snapshot.getMaze();
+        maze.restoreHazards(snapshot.getHazards());
+        movingHazards = pendingMovingHazards;
+        actionLog = null; // The board's seed is unknown, so it cannot be replayed
+        applySnapshot(snapshot);
+
+        // The snapshot starts a fresh timeline
+        history.clear();
+        historyCursor = -1;
+        recordHistory();
+
+        publishReset();
     }
 
     @Override
     public boolean movePlayer(ICave targetCave) {
-        if (!player.getCurrentCave().getNeighbors().contains(targetCave)) {
+        return movePlayer(targetCave.getId());
+    }
+
+    @Override
+    public boolean movePlayer(int targetCaveId) {
+        if (!maze.areAdjacent(player.getCurrentCave().getId(), targetCaveId)) {
             return false; // Can't move to non-adjacent cave
         }
 
+        if (actionLog != null) {
+            actionLog.appendMove(targetCaveId);
+        }
+
+        int fromCaveId = player.getCurrentCave().getId();
+        ICave targetCave = maze.getCaveById(targetCaveId);
         player.setCurrentCave(targetCave);
+        clearMovedHazard();
 
         // Check for hazards
         if (targetCave.hasWumpus()) {
-            gameStatus = "lost";
-            gameOver = true;
-            notifyListeners();
+            applyOutcome(GameOutcome.EATEN_BY_WUMPUS);
+            recordHistory();
+            publishMove(fromCaveId, targetCaveId, -1);
             return true;
         }
 
+        int batDestinationId = -1;
         if (targetCave.hasPit() && targetCave.hasBat()) {
             // 50% chance for each hazard
-            if (random.nextBoolean()) {
+            if (playRandom.nextBoolean()) {
                 handlePit();
             } else {
-                handleBat();
+                batDestinationId = handleBat(targetCaveId);
             }
         } else if (targetCave.hasPit()) {
             handlePit();
         } else if (targetCave.hasBat()) {
-            handleBat();
+            batDestinationId = handleBat(targetCaveId);
         }
 
         checkArrows();
-        notifyListeners();
+        recordHistory();
+        publishMove(fromCaveId, targetCaveId, batDestinationId);
         return true;
     }
 
     private void handlePit() {
-        gameStatus = "lost";
-        gameOver = true;
+        applyOutcome(GameOutcome.FELL_IN_PIT);
     }
 
-    private void handleBat() {
-        ICave randomCave = maze.getAllCaves().get(random.nextInt(maze.getAllCaves().size()));
+    /**
+     * Carries the player to a random cave. With moving hazards the bats then
+     * settle in another empty cave.
+     *
+     * @return The id of the cave the bats dropped the player in
+     */
+    private int handleBat(int batCaveId) {
+        ICave randomCave = maze.getCaveById(playRandom.nextInt(maze.getCaveCount()));
         player.setCurrentCave(randomCave);
 
         // Check if randomly moved to hazard
         if (randomCave.hasWumpus()) {
-            gameStatus = "lost";
-            gameOver = true;
+            applyOutcome(GameOutcome.EATEN_BY_WUMPUS);
         } else if (randomCave.hasPit()) {
             handlePit();
         }
+
+        if (movingHazards && !gameOver) {
+            relocateBats(batCaveId);
+        }
+        return randomCave.getId();
+    }
+
+    private void relocateBats(int fromCaveId) {
+        // The player's cave may be the only empty one
+        if (maze.getEmptyCaveCount() < 2) {
+            return;
+        }
+        int playerCaveId = player.getCurrentCave().getId();
+        int toCaveId;
+        do {
+            toCaveId = playRandom.nextInt(maze.getCaveCount());
+        } while (toCaveId == playerCaveId || maze.hasPit(toCaveId) || maze.hasBat(toCaveId)
+                || maze.hasWumpus(toCaveId));
+
+        boolean fresh = hasFreshSafeRegions();
+        maze.setBat(fromCaveId, false);
+        maze.setBat(toCaveId, true);
+
+        // Bats are harmless, so the safe regions still hold
+        if (fresh) {
+            safeRegionsVersion = maze.getHazardVersion();
+        }
+        movedHazardFrom = fromCaveId;
+        movedHazardTo = toCaveId;
+    }
+
+    /**
+     * Three times out of four the Wumpus wakes up and moves to a random
+     * neighboring cave, eating the player if it lands on them.
+     */
+    private void wakeWumpus() {
+        int fromCaveId = wumpusCave.getId();
+        int degree = maze.getNeighborCount(fromCaveId);
+        if (playRandom.nextInt(4) == 0 || degree == 0) {
+            return;
+        }
+        int toCaveId = maze.getNeighbor(fromCaveId, playRandom.nextInt(degree));
+
+        boolean fresh = hasFreshSafeRegions();
+        maze.setWumpus(fromCaveId, false);
+        maze.setWumpus(toCaveId, true);
+        wumpusCave = maze.getCaveById(toCaveId);
+        if (fresh) {
+            patchSafeRegions(fromCaveId, toCaveId);
+        }
+        movedHazardFrom = fromCaveId;
+        movedHazardTo = toCaveId;
+
+        if (toCaveId == player.getCurrentCave().getId()) {
+            applyOutcome(GameOutcome.EATEN_BY_WUMPUS);
+        }
+    }
+
+    /**
+     * Updates the cached safe regions for a Wumpus move instead of recomputing
+     * them: the old cave may become safe and the new one dangerous. Falls back
+     * to a recomputation only if the patch would have to search too far.
+     */
+    private void patchSafeRegions(int fromCaveId, int toCaveId) {
+        if (!maze.isDangerous(fromCaveId)) {
+            safeRegions.markSafe(maze, fromCaveId);
+        }
+        if (!safeRegions.markDangerous(maze, toCaveId, REGION_PATCH_BUDGET)) {
+            safeRegions = null;
+            return;
+        }
+        wumpusRegions = safeRegions.regionsAround(maze, toCaveId);
+        safeRegionsVersion = maze.getHazardVersion();
+    }
+
+    private void clearMovedHazard() {
+        movedHazardFrom = -1;
+        movedHazardTo = -1;
     }
 
     @Override
     public boolean shootArrow(ICave targetCave) {
+        return shootArrow(targetCave.getId());
+    }
+
+    @Override
+    public boolean shootArrow(int targetCaveId) {
         if (!player.hasArrows()) {
             return false;
         }
 
-        if (!player.getCurrentCave().getNeighbors().contains(targetCave)) {
+        if (!maze.areAdjacent(player.getCurrentCave().getId(), targetCaveId)) {
             return false; // Can't shoot non-adjacent cave
         }
 
+        if (actionLog != null) {
+            actionLog.appendShot(targetCaveId);
+        }
         player.useArrow();
+        clearMovedHazard();
 
-        if (targetCave.hasWumpus()) {
-            gameStatus = "won";
-            gameOver = true;
+        boolean hit = maze.hasWumpus(targetCaveId);
+        if (hit) {
+            applyOutcome(GameOutcome.WON);
+        } else if (movingHazards) {
+            wakeWumpus();
         }
 
         checkArrows();
-        notifyListeners();
+        recordHistory();
+        publishShot(targetCaveId, hit);
         return true;
     }
 
     private void checkArrows() {
         if (!player.hasArrows() && !gameOver) {
-            gameStatus = "lost";
-            gameOver = true;
+            applyOutcome(GameOutcome.OUT_OF_ARROWS);
+        }
+    }
+
+    private void applyOutcome(GameOutcome result) {
+        outcome = result;
+        gameOver = result != GameOutcome.ONGOING;
+        if (!gameOver) {
+            gameStatus = "ongoing";
+        } else {
+            gameStatus = result == GameOutcome.WON ? "won" : "lost";
+        }
+    }
+
+    // Snapshots and time travel
+    @Override
+    public GameSnapshot snapshot() {
+        return new GameSnapshot(maze, maze.snapshotHazards(), wumpusCave.getId(),
+                player.getCurrentCave().getId(), player.getArrows(), outcome, playRandom.getState(),
+                actionLog != null ? actionLog.getLength() : -1, actionLog != null ? actionLog.size() : 0);
+    }
+
+    @Override
+    public void restore(GameSnapshot snapshot) {
+        applySnapshot(snapshot);
+        publishReset();
+    }
+
+    private void applySnapshot(GameSnapshot snapshot) {
+        if (snapshot.getMaze() != maze) {
+            throw new IllegalArgumentException("Snapshot belongs to a different game");
+        }
+        maze.restoreHazards(snapshot.getHazards());
+        wumpusCave = maze.getCaveById(snapshot.getWumpusCaveId());
+        player = new Player(maze.getCaveById(snapshot.getPlayerCaveId()), snapshot.getArrows());
+        applyOutcome(snapshot.getOutcome());
+        playRandom.setSeed(snapshot.getRandomState());
+        if (actionLog != null && snapshot.getLogLength() >= 0) {
+            actionLog.rewind(snapshot.getLogLength(), snapshot.getLogCount());
+        }
+    }
+
+    @Override
+    public boolean canUndo() {
+        return historyCursor > 0;
+    }
+
+    @Override
+    public boolean canRedo() {
+        return historyCursor < history.size() - 1;
+    }
+
+    @Override
+    public boolean undo() {
+        if (!canUndo()) {
+            return false;
+        }
+        travelTo(historyCursor - 1);
+        return true;
+    }
+
+    @Override
+    public boolean redo() {
+        if (!canRedo()) {
+            return false;
+        }
+        travelTo(historyCursor + 1);
+        return true;
+    }
+
+    @Override
+    public int getHistorySize() {
+        return history.size();
+    }
+
+    @Override
+    public int getHistoryIndex() {
+        return historyCursor;
+    }
+
+    @Override
+    public void travelTo(int index) {
+        if (index < 0 || index >= history.size()) {
+            throw new IndexOutOfBoundsException("History index: " + index);
         }
+        historyCursor = index;
+        applySnapshot(history.get(index));
+        publishReset();
+    }
+
+    /**
+     * Turns the undo/redo timeline on or off. Headless callers that never
+     * undo switch it off so moves do not allocate snapshots.
+     */
+    public void setHistoryEnabled(boolean enabled) {
+        historyEnabled = enabled;
+        if (!enabled) {
+            history.clear();
+            historyCursor = -1;
+        }
+    }
+
+    @Override
+    public void setMovingHazards(boolean enabled) {
+        pendingMovingHazards = enabled;
+    }
+
+    @Override
+    public boolean isMovingHazards() {
+        return movingHazards;
+    }
+
+    /**
+     * Turns action logging on or off from the next game on. Replays and
+     * batch simulations switch it off.
+     */
+    public void setActionLogEnabled(boolean enabled) {
+        actionLogEnabled = enabled;
+    }
+
+    @Override
+    public ActionLog getActionLog() {
+        return actionLog;
+    }
+
+    private void recordHistory() {
+        if (!historyEnabled) {
+            return;
+        }
+        // Acting after an undo drops the redo branch
+        if (historyCursor < history.size() - 1) {
+            history.subList(historyCursor + 1, history.size()).clear();
+        }
+        history.add(snapshot());
+        historyCursor = history.size() - 1;
     }
 
     @Override
     public boolean canSmellWumpus() {
-        return player.getCurrentCave().getNeighbors().stream()
-                .anyMatch(ICave::hasWumpus);
+        return senses().smellsWumpus();
     }
 
     @Override
     public boolean canFeelDraft() {
-        return player.getCurrentCave().getNeighbors().stream()
-                .anyMatch(ICave::hasPit);
+        return senses().feelsDraft();
     }
 
     @Override
     public boolean canHearBats() {
-        return player.getCurrentCave().getNeighbors().stream()
-                .anyMatch(ICave::hasBat);
+        return senses().hearsBats();
+    }
+
+    @Override
+    public Senses senses() {
+        return Senses.of(maze.getSenseMask(player.getCurrentCave().getId()));
     }
 
     @Override
@@ -165,6 +491,11 @@ public class GameModel implements IGameModel {
         return gameStatus;
     }
 
+    @Override
+    public GameOutcome getOutcome() {
+        return outcome;
+    }
+
     @Override
     public IPlayer getPlayer() {
         return player;
@@ -178,57 +509,233 @@ public class GameModel implements IGameModel {
     // Observer pattern for view updates
     @Override
     public void addListener(GameModelListener listener) {
-        listeners.add(listener);
+        listeners.add(new GameModelListenerAdapter(listener));
     }
 
     @Override
     public void removeListener(GameModelListener listener) {
+        listeners.removeIf(l -> l instanceof GameModelListenerAdapter
+                && ((GameModelListenerAdapter) l).getListener() == listener);
+    }
+
+    @Override
+    public void addEventListener(GameEventListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeEventListener(GameEventListener listener) {
         listeners.remove(listener);
     }
 
-    private void notifyListeners() {
-        for (GameModelListener listener : listeners) {
-            listener.gameStateChanged();
+    /**
+     * Turns listener dispatch on or off. Headless callers such as batch
+     * simulations switch it off so moves do no observer work at all.
+     */
+    public void setListenersEnabled(boolean enabled) {
+        listenersEnabled = enabled;
+    }
+
+    private boolean hasListeners() {
+        return listenersEnabled && !listeners.isEmpty();
+    }
+
+    // Events are only built when someone listens; the senses and winnability
+    // they carry are computed once per action and shared by its events.
+    // On large mazes winnability is left unknown unless it is already cached.
+    private void publishReset() {
+        if (!hasListeners()) {
+            return;
+        }
+        Senses senses = senses();
+        boolean known = isWinnabilityKnown() || maze.getCaveCount() <= INLINE_ANALYSIS_CAVES;
+        boolean winnable = known && isWinnable();
+        int arrows = player.getArrows();
+        publish(new GameEvent.GameReset(player.getCurrentCave().getId(), senses, arrows, winnable, known, outcome));
+    }
+
+    private void publishMove(int fromCaveId, int toCaveId, int batDestinationId) {
+        if (!hasListeners()) {
+            return;
+        }
+        Senses senses = senses();
+        boolean known = isWinnabilityKnown() || maze.getCaveCount() <= INLINE_ANALYSIS_CAVES;
+        boolean winnable = known && isWinnable();
+        int arrows = player.getArrows();
+        GameEvent moved = new GameEvent.PlayerMoved(fromCaveId, toCaveId, senses, arrows, winnable, known, outcome);
+        GameEvent transport = batDestinationId < 0 ? null
+                : new GameEvent.BatTransport(toCaveId, batDestinationId, senses, arrows, winnable, known, outcome);
+        publish(moved, transport, hazardLeft(senses, arrows, winnable, known),
+                hazardArrived(senses, arrows, winnable, known), gameOverEvent(senses, arrows, winnable, known));
+    }
+
+    private void publishShot(int targetCaveId, boolean hit) {
+        if (!hasListeners()) {
+            return;
+        }
+        Senses senses = senses();
+        boolean known = isWinnabilityKnown() || maze.getCaveCount() <= INLINE_ANALYSIS_CAVES;
+        boolean winnable = known && isWinnable();
+        int arrows = player.getArrows();
+        GameEvent shot = new GameEvent.ArrowShot(targetCaveId, hit, senses, arrows, winnable, known, outcome);
+        publish(shot, hazardLeft(senses, arrows, winnable, known),
+                hazardArrived(senses, arrows, winnable, known), gameOverEvent(senses, arrows, winnable, known));
+    }
+
+    private GameEvent hazardLeft(Senses senses, int arrows, boolean winnable, boolean known) {
+        return movedHazardFrom < 0 ? null
+                : new GameEvent.HazardChanged(movedHazardFrom, senses, arrows, winnable, known, outcome);
+    }
+
+    private GameEvent hazardArrived(Senses senses, int arrows, boolean winnable, boolean known) {
+        return movedHazardTo < 0 ? null
+                : new GameEvent.HazardChanged(movedHazardTo, senses, arrows, winnable, known, outcome);
+    }
+
+    private GameEvent gameOverEvent(Senses senses, int arrows, boolean winnable, boolean known) {
+        return gameOver ? new GameEvent.GameOver(senses, arrows, winnable, known, outcome) : null;
+    }
+
+    // Delivers the non-null events in order, then closes the batch
+    private void publish(GameEvent... events) {
+        long start = System.nanoTime();
+        JfrEvents.ListenerDispatch dispatch = new JfrEvents.ListenerDispatch();
+        dispatch.begin();
+
+        for (GameEventListener listener : listeners) {
+            for (GameEvent event : events) {
+                if (event != null) {
+                    event.dispatchTo(listener);
+                }
+            }
+            listener.eventsDelivered();
         }
+
+        dispatch.events = events.length;
+        dispatch.listeners = listeners.size();
+        dispatch.commit();
+        DISPATCH_TIME.recordSince(start);
     }
 
     // Extra credit: Check if game is winnable
     @Override
     public boolean isWinnable() {
+        int playerCaveId = player.getCurrentCave().getId();
+
         // If player is already in a dangerous location, game is unwinnable
-        if (player.getCurrentCave().isDangerous()) {
+        if (maze.isDangerous(playerCaveId)) {
             return false;
         }
 
-        // We need to find if there is a safe path to any cave adjacent to the Wumpus
-        // Use BFS to find all reachable safe caves from player's current position
+        // Without fresh safe regions an equivalent board may have been
+        // analysed before, here or by the board generator
+        CanonicalBoard key = hasFreshSafeRegions() ? null : boardKey();
+        if (key != null) {
+            Boolean cached = AnalysisCache.shared().get(key, AnalysisCache.WINNABLE);
+            if (cached != null) {
+                return cached;
+            }
+        }
 
-        Set<ICave> reachableSafeCaves = new HashSet<>();
-        Queue<ICave> queue = new LinkedList<>();
-        Set<ICave> visited = new HashSet<>();
+        // The game is winnable if the player's safe region touches the Wumpus
+        ensureSafeRegions();
+        boolean winnable = touchesWumpus(safeRegions.getRegion(playerCaveId));
+        if (key != null) {
+            AnalysisCache.shared().put(key, AnalysisCache.WINNABLE, winnable);
+        }
+        return winnable;
+    }
+
+    private boolean touchesWumpus(int playerRegion) {
+        for (int region : wumpusRegions) {
+            if (region == playerRegion) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isWinnabilityKnown() {
+        if (maze.isDangerous(player.getCurrentCave().getId()) || hasFreshSafeRegions()) {
+            return true;
+        }
+        CanonicalBoard key = boardKey();
+        return key != null && AnalysisCache.shared().contains(key, AnalysisCache.WINNABLE);
+    }
 
-        queue.add(player.getCurrentCave());
-        visited.add(player.getCurrentCave());
+    /**
+     * @return The canonical form of the current board, or null if the maze
+     *         is not a {@link Maze}
+     */
+    private CanonicalBoard boardKey() {
+        if (!(maze instanceof Maze)) {
+            return null;
+        }
+        int playerCaveId = player.getCurrentCave().getId();
+        if (boardKey == null || boardKeyMaze != maze || boardKeyVersion != maze.getHazardVersion()
+                || boardKeyCaveId != playerCaveId) {
+            boardKey = CanonicalBoard.of((Maze) maze, playerCaveId);
+            boardKeyMaze = maze;
+            boardKeyVersion = maze.getHazardVersion();
+            boardKeyCaveId = playerCaveId;
+        }
+        return boardKey;
+    }
 
-        while (!queue.isEmpty()) {
-            ICave current = queue.poll();
-            reachableSafeCaves.add(current);
+    @Override
+    public WinnabilityAnalysis prepareWinnabilityAnalysis() {
+        return new WinnabilityAnalysis(maze, maze.snapshotHazards(), maze.getHazardVersion(),
+                wumpusCave.getId());
+    }
 
-            for (ICave neighbor : current.getNeighbors()) {
-                if (!visited.contains(neighbor) && !neighbor.isDangerous()) {
-                    queue.add(neighbor);
-                    visited.add(neighbor);
-                }
-            }
+    @Override
+    public boolean applyWinnabilityAnalysis(WinnabilityAnalysis analysis) {
+        if (!analysis.isComputed() || analysis.getMaze() != maze
+                || analysis.getHazardVersion() != maze.getHazardVersion()) {
+            return false; // Stale: the hazards changed while it ran
+        }
+        safeRegions = analysis.getSafeRegions();
+        wumpusRegions = analysis.getWumpusRegions();
+        safeRegionsMaze = maze;
+        safeRegionsVersion = analysis.getHazardVersion();
+
+        // Share the result with later visits to an equivalent board
+        CanonicalBoard key = boardKey();
+        if (key != null) {
+            AnalysisCache.shared().put(key, AnalysisCache.WINNABLE, isWinnable());
         }
+        return true;
+    }
 
-        // Check if any cave adjacent to Wumpus is safe and reachable
-        for (ICave cave : wumpusCave.getNeighbors()) {
-            if (reachableSafeCaves.contains(cave)) {
-                return true;
-            }
+    private boolean hasFreshSafeRegions() {
+        return safeRegions != null && safeRegionsMaze == maze
+                && safeRegionsVersion == maze.getHazardVersion();
+    }
+
+    // The incrementally patched safe regions, or null when they are stale
+    SafeRegions getFreshSafeRegions() {
+        return hasFreshSafeRegions() ? safeRegions : null;
+    }
+
+    private void ensureSafeRegions() {
+        if (hasFreshSafeRegions()) {
+            return;
         }
 
-        return false;
+        long start = System.nanoTime();
+        JfrEvents.WinnabilityCheck event = new JfrEvents.WinnabilityCheck();
+        event.begin();
+
+        safeRegions = SafeRegions.compute(maze);
+        safeRegionsMaze = maze;
+        safeRegionsVersion = maze.getHazardVersion();
+
+        // Collect the regions of safe caves next to the Wumpus
+        wumpusRegions = safeRegions.regionsAround(maze, wumpusCave.getId());
+
+        event.caves = maze.getCaveCount();
+        event.commit();
+        WINNABILITY_TIME.recordSince(start);
     }
 }
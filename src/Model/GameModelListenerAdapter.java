@@ -0,0 +1,22 @@
+package Model;
+
+/**
+ * Bridges the old single-method GameModelListener onto typed events: the
+ * listener is told once per model action, however many events it produced.
+ */
+public class GameModelListenerAdapter implements GameEventListener {
+    private final GameModelListener listener;
+
+    public GameModelListenerAdapter(GameModelListener listener) {
+        this.listener = listener;
+    }
+
+    public GameModelListener getListener() {
+        return listener;
+    }
+
+    @Override
+    public void eventsDelivered() {
+        listener.gameStateChanged();
+    }
+}
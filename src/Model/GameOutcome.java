@@ -0,0 +1,12 @@
+package Model;
+
+/**
+ * How a game ended, or ONGOING while it is still being played.
+ */
+public enum GameOutcome {
+    ONGOING,
+    WON,
+    EATEN_BY_WUMPUS,
+    FELL_IN_PIT,
+    OUT_OF_ARROWS
+}
@@ -0,0 +1,74 @@
+package Model;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The random source for game logic: a SplitMix64 generator behind the
+ * java.util.Random API, so it drops in wherever a Random is taken.
+ *
+ * Its whole state is one long, which makes it cheap to seed, to capture in
+ * a snapshot and to derive independent streams from. It is not thread-safe;
+ * every game and every generator task owns its own instance.
+ */
+public class GameRandom extends Random {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final AtomicLong seedUniquifier = new AtomicLong(System.nanoTime());
+
+    private long state;
+
+    /**
+     * Creates an unseeded generator; every instance gets a different seed.
+     */
+    public GameRandom() {
+        this(mix64(seedUniquifier.addAndGet(GOLDEN_GAMMA) ^ System.nanoTime()));
+    }
+
+    public GameRandom(long seed) {
+        super(0);
+        state = seed;
+    }
+
+    /**
+     * The seed of sub-stream number {@code stream} of a seed. Board generation
+     * and play draw from different streams of the same game seed, so neither
+     * depends on how many values the other consumed.
+     */
+    public static long streamSeed(long seed, int stream) {
+        return mix64(seed + GOLDEN_GAMMA * (2L * stream + 1));
+    }
+
+    /**
+     * Derives a new generator whose sequence is independent of this one.
+     */
+    public GameRandom split() {
+        return new GameRandom(mix64(nextLong() ^ GOLDEN_GAMMA));
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        state = seed;
+    }
+
+    @Override
+    public long nextLong() {
+        state += GOLDEN_GAMMA;
+        return mix64(state);
+    }
+
+    @Override
+    protected int next(int bits) {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+
+    // The current state; setSeed(getState()) resumes the sequence from here
+    long getState() {
+        return state;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,70 @@
+package Model;
+
+/**
+ * An immutable capture of a game at one moment: player position, arrows,
+ * outcome and the hazard layers, which are shared rather than copied.
+ * It also captures the play random state and the end of the action log, so
+ * redoing a move replays the same bat flight.
+ * Taking and restoring a snapshot are both O(1).
+ */
+public final class GameSnapshot {
+    private final IMaze maze;
+    private final HazardLayers hazards;
+    private final int wumpusCaveId;
+    private final int playerCaveId;
+    private final int arrows;
+    private final GameOutcome outcome;
+    private final long randomState;
+    private final int logLength;
+    private final int logCount;
+
+    GameSnapshot(IMaze maze, HazardLayers hazards, int wumpusCaveId, int playerCaveId,
+                 int arrows, GameOutcome outcome, long randomState, int logLength, int logCount) {
+        this.maze = maze;
+        this.hazards = hazards;
+        this.wumpusCaveId = wumpusCaveId;
+        this.playerCaveId = playerCaveId;
+        this.arrows = arrows;
+        this.outcome = outcome;
+        this.randomState = randomState;
+        this.logLength = logLength;
+        this.logCount = logCount;
+    }
+
+    IMaze getMaze() {
+        return maze;
+    }
+
+    HazardLayers getHazards() {
+        return hazards;
+    }
+
+    int getWumpusCaveId() {
+        return wumpusCaveId;
+    }
+
+    long getRandomState() {
+        return randomState;
+    }
+
+    // -1 when the game had no action log
+    int getLogLength() {
+        return logLength;
+    }
+
+    int getLogCount() {
+        return logCount;
+    }
+
+    public int getPlayerCaveId() {
+        return playerCaveId;
+    }
+
+    public int getArrows() {
+        return arrows;
+    }
+
+    public GameOutcome getOutcome() {
+        return outcome;
+    }
+}
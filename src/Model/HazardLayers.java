@@ -0,0 +1,204 @@
+package Model;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * The per-game hazard state of a maze: which caves hold a pit, bats or the
+ * Wumpus. Only occupied caves are stored, in an open-addressing map from cave
+ * id to a hazard mask, so the layers and every snapshot of them cost
+ * O(hazards) memory no matter how big the shared {@link Topology} is.
+ *
+ * The mask bits match {@link Senses}, so what a player senses in a cave is
+ * just the union of its neighbors' masks.
+ *
+ * Instances are copy-on-write. A snapshot just shares the current instance;
+ * the maze copies it before the next hazard change, so taking and restoring
+ * snapshots are both O(1) and a copy is O(hazards). The maze keeps the
+ * senses and the pool of empty caves derived from them.
+ */
+public final class HazardLayers {
+    static final int WUMPUS = Senses.WUMPUS;
+    static final int PIT = Senses.PIT;
+    static final int BAT = Senses.BATS;
+
+    private static final int EMPTY = -1;
+    private static final int MIN_CAPACITY = 8;
+
+    // Linear probing table; keys[i] is a cave id or EMPTY
+    private int[] keys;
+    private byte[] masks;
+    private int size;
+
+    HazardLayers() {
+        this(MIN_CAPACITY);
+    }
+
+    private HazardLayers(int capacity) {
+        keys = new int[capacity];
+        masks = new byte[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    private HazardLayers(HazardLayers other) {
+        keys = other.keys.clone();
+        masks = other.masks.clone();
+        size = other.size;
+    }
+
+    /**
+     * Builds layers from hazard bitsets. Costs O(hazards).
+     */
+    static HazardLayers fromBits(BitSet pits, BitSet bats, BitSet wumpus) {
+        HazardLayers layers = new HazardLayers();
+        layers.addAll(pits, PIT);
+        layers.addAll(bats, BAT);
+        layers.addAll(wumpus, WUMPUS);
+        return layers;
+    }
+
+    private void addAll(BitSet bits, int hazard) {
+        for (int caveId = bits.nextSetBit(0); caveId >= 0; caveId = bits.nextSetBit(caveId + 1)) {
+            set(caveId, hazard, true);
+        }
+    }
+
+    /**
+     * The hazards in a cave as a mask of {@link #PIT}, {@link #BAT} and
+     * {@link #WUMPUS}; 0 for an empty cave.
+     */
+    int get(int caveId) {
+        int mask = keys.length - 1;
+        for (int i = slot(caveId); ; i = (i + 1) & mask) {
+            int key = keys[i];
+            if (key == caveId) {
+                return masks[i];
+            }
+            if (key == EMPTY) {
+                return 0;
+            }
+        }
+    }
+
+    boolean has(int caveId, int hazard) {
+        return (get(caveId) & hazard) != 0;
+    }
+
+    boolean isDangerous(int caveId) {
+        return (get(caveId) & (PIT | WUMPUS)) != 0;
+    }
+
+    /**
+     * Adds or removes one hazard.
+     *
+     * @return Whether the cave changed
+     */
+    boolean set(int caveId, int hazard, boolean present) {
+        int mask = keys.length - 1;
+        int i = slot(caveId);
+        while (keys[i] != EMPTY && keys[i] != caveId) {
+            i = (i + 1) & mask;
+        }
+
+        int old = keys[i] == caveId ? masks[i] : 0;
+        int updated = present ? old | hazard : old & ~hazard;
+        if (updated == old) {
+            return false;
+        }
+
+        if (updated == 0) {
+            remove(i);
+        } else if (old == 0) {
+            keys[i] = caveId;
+            masks[i] = (byte) updated;
+            if (++size * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+        } else {
+            masks[i] = (byte) updated;
+        }
+        return true;
+    }
+
+    /**
+     * Number of caves holding at least one hazard.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * The caves holding a hazard, as a bitset indexed by cave id.
+     */
+    BitSet toBitSet(int hazard) {
+        BitSet bits = new BitSet();
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY && (masks[i] & hazard) != 0) {
+                bits.set(keys[i]);
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Every occupied cave as its id shifted left by 3 bits, or-ed with its
+     * hazard mask; in no particular order.
+     */
+    int[] entries() {
+        int[] entries = new int[size];
+        int count = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                entries[count++] = keys[i] << 3 | masks[i];
+            }
+        }
+        return entries;
+    }
+
+    HazardLayers copy() {
+        return new HazardLayers(this);
+    }
+
+    // Backward shift deletion keeps probe chains intact without tombstones
+    private void remove(int i) {
+        int mask = keys.length - 1;
+        int hole = i;
+        for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+            int home = slot(keys[j]);
+            // Move the entry back if the hole lies on its probe path
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                masks[hole] = masks[j];
+                hole = j;
+            }
+        }
+        keys[hole] = EMPTY;
+        masks[hole] = 0;
+        size--;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        byte[] oldMasks = masks;
+        keys = new int[capacity];
+        masks = new byte[capacity];
+        Arrays.fill(keys, EMPTY);
+
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != EMPTY) {
+                int i = slot(oldKeys[j]);
+                while (keys[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                masks[i] = oldMasks[j];
+            }
+        }
+    }
+
+    private int slot(int caveId) {
+        // Fibonacci hashing spreads consecutive ids across the table
+        return (caveId * 0x9E3779B9) >>> (32 - Integer.numberOfTrailingZeros(keys.length));
+    }
+}
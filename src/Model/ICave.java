@@ -4,7 +4,6 @@ import java.util.List;
 
 public interface ICave {
     int getId();
-    void addNeighbor(ICave cave);
     List<ICave> getNeighbors();
     boolean hasPit();
     void setHasPit(boolean hasPit);
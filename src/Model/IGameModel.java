@@ -2,16 +2,51 @@ package Model;
 
 public interface IGameModel {
     void initialize(int numCaves, int numPits, int numBats, int numArrows);
+    void initialize(GameBoard board, int numArrows);
+    void initialize(GameSnapshot snapshot); // e.g. a game loaded from a save file
     boolean movePlayer(ICave targetCave);
+    boolean movePlayer(int targetCaveId);
     boolean shootArrow(ICave targetCave);
+    boolean shootArrow(int targetCaveId);
     boolean canSmellWumpus();
     boolean canFeelDraft();
     boolean canHearBats();
+    Senses senses();
     boolean isGameOver();
     String getGameStatus();
+    GameOutcome getOutcome();
     IPlayer getPlayer();
     IMaze getMaze();
     void addListener(GameModelListener listener);
     void removeListener(GameModelListener listener);
+    void addEventListener(GameEventListener listener);
+    void removeEventListener(GameEventListener listener);
     boolean isWinnable();
+
+    // Classic moving hazards: the Wumpus may move after a miss and bats
+    // relocate after carrying the player. Applies from the next initialize,
+    // so a game and its action log always agree on the rule
+    void setMovingHazards(boolean enabled);
+    boolean isMovingHazards();
+
+    // Off-thread winnability: prepare on the game thread, compute anywhere,
+    // then apply back on the game thread
+    boolean isWinnabilityKnown();
+    WinnabilityAnalysis prepareWinnabilityAnalysis();
+    boolean applyWinnabilityAnalysis(WinnabilityAnalysis analysis);
+
+    // Snapshots, undo/redo and time travel
+    GameSnapshot snapshot();
+    void restore(GameSnapshot snapshot);
+    boolean canUndo();
+    boolean canRedo();
+    boolean undo();
+    boolean redo();
+    int getHistorySize();
+    int getHistoryIndex();
+    void travelTo(int index);
+
+    // Seed, settings and actions of the current game, or null if it cannot be
+    // replayed; the log is live, copy it before handing it to another thread
+    ActionLog getActionLog();
 }
@@ -6,4 +6,33 @@ public interface IMaze {
     ICave getRandomEmptyCave();
     List<ICave> getAllCaves();
     ICave getCaveById(int id);
+
+    // Id-based topology access; none of these allocate
+    int getCaveCount();
+    int getNeighborCount(int caveId);
+    int getNeighbor(int caveId, int index);
+    boolean areAdjacent(int caveId, int otherId);
+
+    // Fewest moves between two caves ignoring hazards, or -1 if unreachable
+    int getDistance(int caveId, int otherId);
+
+    // Id-based hazard layers
+    boolean hasPit(int caveId);
+    void setPit(int caveId, boolean hasPit);
+    boolean hasBat(int caveId);
+    void setBat(int caveId, boolean hasBat);
+    boolean hasWumpus(int caveId);
+    void setWumpus(int caveId, boolean hasWumpus);
+    boolean isDangerous(int caveId);
+    int getEmptyCaveCount();
+
+    // What a player standing in the cave senses, as a Senses mask
+    int getSenseMask(int caveId);
+
+    // Incremented whenever any hazard layer actually changes
+    int getHazardVersion();
+
+    // O(1) copy-on-write snapshots of the hazard layers
+    HazardLayers snapshotHazards();
+    void restoreHazards(HazardLayers snapshot);
 }
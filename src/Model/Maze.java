@@ -1,176 +1,284 @@
 package Model;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
+/**
+ * One game's maze: a shared, immutable {@link Topology} plus this game's
+ * hazard layers. Thousands of concurrent games of the same size share a
+ * single graph; each game only adds its hazards and the per-cave state
+ * derived from them.
+ */
 public class Maze implements IMaze {
-    private List<ICave> caves;
-    private Map<Integer, ICave> caveMap;
+    private final Topology topology;
     private Random random;
 
-    public Maze(int numCaves) {
-        caves = new ArrayList<>();
-        caveMap = new HashMap<>();
-        random = new Random();
+    // Hazard state; shared with snapshots until the next change copies it
+    private HazardLayers hazards;
+    private boolean hazardsShared;
+    private int hazardVersion;
 
-        // Create caves
-        for (int i = 0; i < numCaves; i++) {
-            ICave cave = new Cave(i);
-            caves.add(cave);
-            caveMap.put(i, cave);
-        }
+    // Senses mask per cave (see Senses), kept in sync with the hazards
+    private final byte[] senseMasks;
 
-        // Connect caves in a pentagon structure
-        connectPentagonStructure();
-    }
+    // Pool of caves with no hazard: freeCaves[0 .. freeCount - 1] holds their ids
+    // and freeSlots[id] is each cave's position in the pool, or -1 when occupied
+    private final int[] freeCaves;
+    private final int[] freeSlots;
+    private int freeCount;
 
-    private void connectPentagonStructure() {
-        // If we don't have enough caves, fallback to simple connection
-        if (caves.size() < 20) {
-            connectSimple();
-            return;
-        }
+    // One cave object per id, created the first time it is asked for
+    private final Cave[] caves;
 
-        // Clear any existing connections first
-        // Note: This is a bit of a hack since we don't have a clean way to remove neighbors
-
-        // Connect outer pentagon (first 5 caves)
-        for (int i = 0; i < 5; i++) {
-            int nextIndex = (i + 1) % 5;
-            ICave cave = caves.get(i);
-            ICave nextCave = caves.get(nextIndex);
-            cave.addNeighbor(nextCave);
+    private final List<ICave> caveView = new AbstractList<ICave>() {
+        @Override
+        public ICave get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index);
+            }
+            return cave(index);
         }
 
-        // Connect middle layer (caves 5-14) in a circle
-        for (int i = 0; i < 10; i++) {
-            int nextIndex = (i + 1) % 10 + 5;
-            ICave cave = caves.get(i + 5);
-            ICave nextCave = caves.get(nextIndex);
-            cave.addNeighbor(nextCave);
+        @Override
+        public int size() {
+            return caves.length;
         }
+    };
+
+    public Maze(int numCaves) {
+        this(numCaves, new GameRandom());
+    }
 
-        // Connect inner pentagon (caves 15-19)
-        for (int i = 0; i < 5; i++) {
-            int nextIndex = (i + 1) % 5 + 15;
-            ICave cave = caves.get(i + 15);
-            ICave nextCave = caves.get(nextIndex);
-            cave.addNeighbor(nextCave);
+    public Maze(int numCaves, Random random) {
+        this(Topology.of(numCaves), random);
+    }
+
+    public Maze(Topology topology, Random random) {
+        this.topology = topology;
+        this.random = random;
+        hazards = new HazardLayers();
+
+        // Every cave starts out empty
+        int numCaves = topology.getCaveCount();
+        senseMasks = new byte[numCaves];
+        freeCaves = new int[numCaves];
+        freeSlots = new int[numCaves];
+        for (int i = 0; i < numCaves; i++) {
+            freeCaves[i] = i;
+            freeSlots[i] = i;
         }
+        freeCount = numCaves;
+        caves = new Cave[numCaves];
+    }
 
-        // Connect outer pentagon to middle layer
-        for (int i = 0; i < 5; i++) {
-            // Each vertex of outer pentagon connects to 2 caves in middle layer
-            ICave outerCave = caves.get(i);
+    /**
+     * Wraps an already built topology in compressed sparse row form, as read
+     * from a save file. The arrays are adopted, not copied.
+     */
+    Maze(int[] neighborOffsets, int[] neighborTargets, Random random) {
+        this(Topology.adopt(neighborOffsets, neighborTargets), random);
+    }
 
-            // Connect to middle layer caves
-            int middleIndex1 = (i * 2) % 10 + 5;
-            int middleIndex2 = (i * 2 + 1) % 10 + 5;
+    public Topology getTopology() {
+        return topology;
+    }
 
-            outerCave.addNeighbor(caves.get(middleIndex1));
-            outerCave.addNeighbor(caves.get(middleIndex2));
+    @Override
+    public ICave getRandomEmptyCave() {
+        if (freeCount == 0) {
+            return cave(random.nextInt(caves.length));
         }
+        return cave(freeCaves[random.nextInt(freeCount)]);
+    }
 
-        // Connect middle layer to inner pentagon
-        for (int i = 0; i < 10; i++) {
-            // Each middle layer cave connects to 1 inner pentagon cave
-            ICave middleCave = caves.get(i + 5);
+    @Override
+    public List<ICave> getAllCaves() {
+        return caveView;
+    }
 
-            // Connect to inner pentagon cave
-            int innerIndex = (i / 2) % 5 + 15;
-            middleCave.addNeighbor(caves.get(innerIndex));
+    @Override
+    public ICave getCaveById(int id) {
+        if (id < 0 || id >= caves.length) {
+            return null;
         }
+        return cave(id);
+    }
 
-        // Ensure each cave has exactly 3 connections
-        ensureThreeConnections();
+    private Cave cave(int id) {
+        Cave cave = caves[id];
+        if (cave == null) {
+            cave = new Cave(id, this);
+            caves[id] = cave;
+        }
+        return cave;
     }
 
-    private void ensureThreeConnections() {
-        for (ICave cave : caves) {
-            List<ICave> neighbors = cave.getNeighbors();
+    @Override
+    public int getCaveCount() {
+        return topology.getCaveCount();
+    }
 
-            if (neighbors.size() < 3) {
-                // Add connections until we have exactly 3
-                int connectionsNeeded = 3 - neighbors.size();
+    @Override
+    public int getNeighborCount(int caveId) {
+        return topology.getNeighborCount(caveId);
+    }
 
-                // Find caves that are not already connected
-                List<ICave> possibleConnections = new ArrayList<>(caves);
-                possibleConnections.remove(cave);  // Can't connect to self
-                possibleConnections.removeAll(neighbors);  // Can't connect to existing neighbors
+    @Override
+    public int getNeighbor(int caveId, int index) {
+        return topology.getNeighbor(caveId, index);
+    }
 
-                // Sort by proximity (using index as a proxy)
-                possibleConnections.sort((c1, c2) -> {
-                    int id1 = c1.getId();
-                    int id2 = c2.getId();
-                    int caveId = cave.getId();
+    @Override
+    public boolean areAdjacent(int caveId, int otherId) {
+        return topology.areAdjacent(caveId, otherId);
+    }
 
-                    int dist1 = Math.abs(id1 - caveId);
-                    int dist2 = Math.abs(id2 - caveId);
+    @Override
+    public int getDistance(int caveId, int otherId) {
+        return topology.getDistances().distance(caveId, otherId);
+    }
 
-                    // Consider wraparound
-                    if (dist1 > caves.size() / 2) {
-                        dist1 = caves.size() - dist1;
-                    }
-                    if (dist2 > caves.size() / 2) {
-                        dist2 = caves.size() - dist2;
-                    }
+    @Override
+    public boolean hasPit(int caveId) {
+        return hazards.has(caveId, HazardLayers.PIT);
+    }
 
-                    return Integer.compare(dist1, dist2);
-                });
+    @Override
+    public void setPit(int caveId, boolean hasPit) {
+        setHazard(caveId, HazardLayers.PIT, hasPit);
+    }
 
-                // Add the needed connections
-                for (int i = 0; i < connectionsNeeded && i < possibleConnections.size(); i++) {
-                    cave.addNeighbor(possibleConnections.get(i));
-                }
-            }
+    @Override
+    public boolean hasBat(int caveId) {
+        return hazards.has(caveId, HazardLayers.BAT);
+    }
 
-            // If we have more than 3 connections, do nothing
-            // This could happen from mutual connections being made
-        }
+    @Override
+    public void setBat(int caveId, boolean hasBat) {
+        setHazard(caveId, HazardLayers.BAT, hasBat);
     }
 
-    private void connectCaves(int id1, int id2) {
-        ICave cave1 = caveMap.get(id1);
-        ICave cave2 = caveMap.get(id2);
-        if (cave1 != null && cave2 != null) {
-            cave1.addNeighbor(cave2);
-        }
+    @Override
+    public boolean hasWumpus(int caveId) {
+        return hazards.has(caveId, HazardLayers.WUMPUS);
     }
 
-    private void connectSimple() {
-        // For simplicity, connect each cave to 3 others
-        for (int i = 0; i < caves.size(); i++) {
-            ICave cave = caves.get(i);
+    @Override
+    public void setWumpus(int caveId, boolean hasWumpus) {
+        setHazard(caveId, HazardLayers.WUMPUS, hasWumpus);
+    }
 
-            // Connect to the next 3 caves (wrapping around)
-            for (int j = 1; j <= 3; j++) {
-                int neighborIndex = (i + j) % caves.size();
-                cave.addNeighbor(caves.get(neighborIndex));
-            }
-        }
+    @Override
+    public int getSenseMask(int caveId) {
+        return senseMasks[caveId];
     }
 
     @Override
-    public ICave getRandomEmptyCave() {
-        List<ICave> emptyCaves = caves.stream()
-                .filter(c -> !c.hasPit() && !c.hasWumpus() && !c.hasBat())
-                .collect(Collectors.toList());
+    public boolean isDangerous(int caveId) {
+        return hazards.isDangerous(caveId);
+    }
 
-        if (emptyCaves.isEmpty()) {
-            return caves.get(random.nextInt(caves.size()));
-        }
+    @Override
+    public int getHazardVersion() {
+        return hazardVersion;
+    }
 
-        return emptyCaves.get(random.nextInt(emptyCaves.size()));
+    @Override
+    public int getEmptyCaveCount() {
+        return freeCount;
+    }
+
+    // Reads the live layers without marking them shared
+    int[] hazardEntries() {
+        return hazards.entries();
     }
 
     @Override
-    public List<ICave> getAllCaves() {
-        return new ArrayList<>(caves);
+    public HazardLayers snapshotHazards() {
+        hazardsShared = true;
+        return hazards;
     }
 
+    /**
+     * Only the caves occupied before or after the restore can have changed,
+     * so the senses and free pool are patched in O(hazards * degree^2).
+     */
     @Override
-    public ICave getCaveById(int id) {
-        return caveMap.get(id);
+    public void restoreHazards(HazardLayers snapshot) {
+        if (snapshot == hazards) {
+            return;
+        }
+        int[] before = hazards.entries();
+        hazards = snapshot;
+        hazardsShared = true;
+        hazardVersion++;
+
+        for (int entry : before) {
+            updateFreePool(entry >>> 3);
+            updateSenseMasks(entry >>> 3);
+        }
+        for (int entry : snapshot.entries()) {
+            updateFreePool(entry >>> 3);
+            updateSenseMasks(entry >>> 3);
+        }
+    }
+
+    private void setHazard(int caveId, int hazard, boolean present) {
+        if (hazards.has(caveId, hazard) == present) {
+            return;
+        }
+        ensureHazardsWritable();
+        hazards.set(caveId, hazard, present);
+        hazardVersion++;
+        updateFreePool(caveId);
+
+        if (present) {
+            // A new hazard is sensed next door, O(degree)
+            for (int i = 0; i < topology.getNeighborCount(caveId); i++) {
+                senseMasks[topology.getNeighbor(caveId, i)] |= (byte) hazard;
+            }
+        } else {
+            // Another neighbor may still hold the same hazard
+            updateSenseMasks(caveId);
+        }
+    }
+
+    private void ensureHazardsWritable() {
+        if (hazardsShared) {
+            hazards = hazards.copy();
+            hazardsShared = false;
+        }
+    }
+
+    /**
+     * Recomputes the senses of every cave next to a cave whose hazards changed.
+     * Costs O(degree^2).
+     */
+    private void updateSenseMasks(int caveId) {
+        for (int i = 0; i < topology.getNeighborCount(caveId); i++) {
+            int neighbor = topology.getNeighbor(caveId, i);
+            int mask = 0;
+            for (int j = 0; j < topology.getNeighborCount(neighbor); j++) {
+                mask |= hazards.get(topology.getNeighbor(neighbor, j));
+            }
+            senseMasks[neighbor] = (byte) mask;
+        }
     }
 
-}
\ No newline at end of file
+    private void updateFreePool(int caveId) {
+        boolean empty = hazards.get(caveId) == 0;
+        int slot = freeSlots[caveId];
+
+        if (empty && slot < 0) {
+            // Append to the end of the pool
+            freeCaves[freeCount] = caveId;
+            freeSlots[caveId] = freeCount;
+            freeCount++;
+        } else if (!empty && slot >= 0) {
+            // Swap the last pooled cave into this slot
+            int last = freeCaves[--freeCount];
+            freeCaves[slot] = last;
+            freeSlots[last] = slot;
+            freeSlots[caveId] = -1;
+        }
+    }
+}
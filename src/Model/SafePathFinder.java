@@ -0,0 +1,152 @@
+package Model;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Plans multi-cave moves, such as "travel to cave X", over what a player
+ * knows about the maze.
+ *
+ * A path is ranked first by how many caves on it are not known to be safe and
+ * only then by its length, so a long detour through explored caves beats a
+ * shortcut through unexplored ones. The search is A* with the maze's
+ * {@link IMaze#getDistance(int, int)} as the heuristic, so it stays close to
+ * the path even on very large mazes.
+ */
+public final class SafePathFinder {
+    private SafePathFinder() {
+    }
+
+    /**
+     * Finds the safest known path between two caves.
+     *
+     * @param maze The game maze
+     * @param start The cave the player is in
+     * @param target The cave to travel to
+     * @param safe Whether a cave is known to be safe
+     * @param blocked Whether a cave must never be entered; the target is
+     *                entered even if it is blocked
+     * @return The caves to move through in order, ending with the target; empty
+     *         if start is the target, or null if no path exists
+     */
+    public static int[] find(IMaze maze, int start, int target, IntPredicate safe, IntPredicate blocked) {
+        if (start == target) {
+            return new int[0];
+        }
+        // Distances are always asked from the target, so large mazes search
+        // and cache a single row for the whole query
+        if (maze.getDistance(target, start) < 0) {
+            return null;
+        }
+
+        int numCaves = maze.getCaveCount();
+        // Costs are lexicographic: one unknown cave outweighs any number of moves
+        long unknownCost = numCaves;
+        long[] cost = new long[numCaves];
+        int[] parent = new int[numCaves];
+        Arrays.fill(cost, Long.MAX_VALUE);
+        cost[start] = 0;
+        parent[start] = -1;
+
+        Heap open = new Heap();
+        open.push(maze.getDistance(target, start), start);
+
+        while (open.size > 0) {
+            long f = open.peekKey();
+            int current = open.pop();
+            if (current == target) {
+                return unwind(parent, start, target);
+            }
+            if (f - maze.getDistance(target, current) > cost[current]) {
+                continue; // Stale entry, a cheaper one was already expanded
+            }
+
+            for (int i = 0; i < maze.getNeighborCount(current); i++) {
+                int neighbor = maze.getNeighbor(current, i);
+                if (neighbor != target && blocked.test(neighbor)) {
+                    continue;
+                }
+                long next = cost[current] + 1 + (safe.test(neighbor) ? 0 : unknownCost);
+                if (next < cost[neighbor]) {
+                    int remaining = maze.getDistance(target, neighbor);
+                    if (remaining < 0) {
+                        continue;
+                    }
+                    cost[neighbor] = next;
+                    parent[neighbor] = current;
+                    open.push(next + remaining, neighbor);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static int[] unwind(int[] parent, int start, int target) {
+        int length = 0;
+        for (int caveId = target; caveId != start; caveId = parent[caveId]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int caveId = target; caveId != start; caveId = parent[caveId]) {
+            path[--length] = caveId;
+        }
+        return path;
+    }
+
+    /**
+     * Binary min-heap of caves keyed by estimated total cost.
+     */
+    private static final class Heap {
+        private long[] keys = new long[16];
+        private int[] values = new int[16];
+        private int size;
+
+        void push(long key, int value) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int up = (i - 1) / 2;
+                if (keys[up] <= key) {
+                    break;
+                }
+                keys[i] = keys[up];
+                values[i] = values[up];
+                i = up;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        long peekKey() {
+            return keys[0];
+        }
+
+        int pop() {
+            int top = values[0];
+            long key = keys[--size];
+            int value = values[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && keys[child + 1] < keys[child]) {
+                    child++;
+                }
+                if (keys[child] >= key) {
+                    break;
+                }
+                keys[i] = keys[child];
+                values[i] = values[child];
+                i = child;
+            }
+            keys[i] = key;
+            values[i] = value;
+            return top;
+        }
+    }
+}
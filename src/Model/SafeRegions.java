@@ -0,0 +1,359 @@
+package Model;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.function.IntPredicate;
+
+/**
+ * Labels the connected components of safe caves (no pit, no Wumpus) in a maze.
+ * Two safe caves share a region exactly when the player can walk between them
+ * without passing through a dangerous cave.
+ *
+ * When a single cave changes between safe and dangerous, as with a moving
+ * Wumpus, the labelling can be patched in place instead of recomputed; see
+ * {@link #markSafe} and {@link #markDangerous}. Regions merged by a patch are
+ * tracked with a union-find over region ids. Patched instances must stay on
+ * the game thread.
+ */
+public class SafeRegions {
+    private static final int CANCEL_CHECK_MASK = 4095;
+
+    private final int[] regionOf;
+    private int regionCount;
+
+    // Union-find over region ids, created by the first patch that needs it
+    private int[] regionParent;
+
+    private SafeRegions(int[] regionOf, int regionCount) {
+        this.regionOf = regionOf;
+        this.regionCount = regionCount;
+    }
+
+    /**
+     * Computes the safe regions of the maze in its current hazard state.
+     *
+     * @param maze The game maze
+     * @return The region labelling
+     */
+    public static SafeRegions compute(IMaze maze) {
+        return compute(maze, maze::isDangerous);
+    }
+
+    /**
+     * Computes the safe regions for a frozen hazard snapshot. The snapshot is
+     * never written again, so this is safe to run off the game thread.
+     */
+    static SafeRegions compute(IMaze maze, HazardLayers hazards) {
+        return compute(maze, hazards::isDangerous);
+    }
+
+    private static SafeRegions compute(IMaze maze, IntPredicate dangerous) {
+        int numCaves = maze.getCaveCount();
+        int[] regionOf = new int[numCaves];
+        int[] queue = new int[numCaves];
+        Arrays.fill(regionOf, -1);
+
+        int regionCount = 0;
+        for (int start = 0; start < numCaves; start++) {
+            if (regionOf[start] != -1 || dangerous.test(start)) {
+                continue;
+            }
+
+            // Flood fill one region
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = start;
+            regionOf[start] = regionCount;
+
+            while (head < tail) {
+                int current = queue[head++];
+
+                // Background analyses are cancelled by interrupting them
+                if ((head & CANCEL_CHECK_MASK) == 0 && Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException("Safe region analysis cancelled");
+                }
+
+                for (int i = 0; i < maze.getNeighborCount(current); i++) {
+                    int neighbor = maze.getNeighbor(current, i);
+                    if (regionOf[neighbor] == -1 && !dangerous.test(neighbor)) {
+                        regionOf[neighbor] = regionCount;
+                        queue[tail++] = neighbor;
+                    }
+                }
+            }
+
+            regionCount++;
+        }
+
+        return new SafeRegions(regionOf, regionCount);
+    }
+
+    /**
+     * Regions of the safe caves next to the Wumpus; the player can win exactly
+     * when their own region is one of them.
+     */
+    int[] regionsAround(IMaze maze, int wumpusCaveId) {
+        int[] regions = new int[maze.getNeighborCount(wumpusCaveId)];
+        int count = 0;
+        for (int i = 0; i < regions.length; i++) {
+            int region = getRegion(maze.getNeighbor(wumpusCaveId, i));
+            if (region != -1) {
+                regions[count++] = region;
+            }
+        }
+        return Arrays.copyOf(regions, count);
+    }
+
+    /**
+     * @param caveId The cave id
+     * @return The region the cave belongs to, or -1 if the cave is dangerous
+     */
+    public int getRegion(int caveId) {
+        int region = regionOf[caveId];
+        return region < 0 ? region : find(region);
+    }
+
+    /**
+     * @return The number of region ids handed out; after patches some of them
+     *         may have been merged into others
+     */
+    public int getRegionCount() {
+        return regionCount;
+    }
+
+    /**
+     * Patches the labelling after a dangerous cave became safe. Joins the
+     * regions of its safe neighbors, so it costs O(degree).
+     */
+    void markSafe(IMaze maze, int caveId) {
+        if (regionOf[caveId] >= 0) {
+            return;
+        }
+
+        int root = -1;
+        for (int i = 0; i < maze.getNeighborCount(caveId); i++) {
+            int region = getRegion(maze.getNeighbor(caveId, i));
+            if (region < 0 || region == root) {
+                continue;
+            }
+            if (root < 0) {
+                root = region;
+            } else {
+                ensureRegionParent();
+                regionParent[region] = root;
+            }
+        }
+        regionOf[caveId] = root >= 0 ? root : newRegion();
+    }
+
+    /**
+     * Patches the labelling after a safe cave became dangerous, which may split
+     * its region. Searches from each of its safe neighbors run interleaved,
+     * merging when they meet; a group of searches that runs out of caves has
+     * found a split-off piece and relabels it. The cost is bounded by the
+     * smaller pieces, not the maze.
+     *
+     * @param budget Most caves to visit before giving up
+     * @return false if the budget ran out; the labelling is then invalid and
+     *         must be recomputed
+     */
+    boolean markDangerous(IMaze maze, int caveId, int budget) {
+        if (regionOf[caveId] < 0) {
+            return true;
+        }
+        regionOf[caveId] = -1;
+
+        int degree = maze.getNeighborCount(caveId);
+        int[][] queues = new int[degree][];
+        int[] heads = new int[degree];
+        int[] tails = new int[degree];
+        int[] group = new int[degree];
+        boolean[] finished = new boolean[degree];
+        CaveMarks marks = new CaveMarks();
+
+        int searches = 0;
+        for (int i = 0; i < degree; i++) {
+            int neighbor = maze.getNeighbor(caveId, i);
+            if (regionOf[neighbor] < 0 || marks.get(neighbor) >= 0) {
+                continue;
+            }
+            marks.put(neighbor, searches);
+            queues[searches] = new int[8];
+            queues[searches][tails[searches]++] = neighbor;
+            group[searches] = searches;
+            searches++;
+        }
+
+        int visited = searches;
+        while (countOpenGroups(group, finished, searches) > 1) {
+            for (int s = 0; s < searches; s++) {
+                if (heads[s] == tails[s]) {
+                    continue;
+                }
+                int current = queues[s][heads[s]++];
+                for (int i = 0; i < maze.getNeighborCount(current); i++) {
+                    int neighbor = maze.getNeighbor(current, i);
+                    if (regionOf[neighbor] < 0) {
+                        continue;
+                    }
+                    int owner = marks.get(neighbor);
+                    if (owner < 0) {
+                        if (++visited > budget) {
+                            return false;
+                        }
+                        marks.put(neighbor, s);
+                        if (tails[s] == queues[s].length) {
+                            queues[s] = Arrays.copyOf(queues[s], tails[s] * 2);
+                        }
+                        queues[s][tails[s]++] = neighbor;
+                    } else {
+                        // The searches met, so their caves are still connected
+                        int a = findGroup(group, owner);
+                        int b = findGroup(group, s);
+                        if (a != b) {
+                            group[Math.max(a, b)] = Math.min(a, b);
+                        }
+                    }
+                }
+            }
+
+            // A group whose searches all ran dry is a piece that split off
+            for (int s = 0; s < searches; s++) {
+                int root = findGroup(group, s);
+                if (finished[root] || !isDry(group, heads, tails, searches, root)
+                        || countOpenGroups(group, finished, searches) <= 1) {
+                    continue;
+                }
+                finished[root] = true;
+                int region = newRegion();
+                for (int t = 0; t < searches; t++) {
+                    if (findGroup(group, t) == root) {
+                        for (int k = 0; k < tails[t]; k++) {
+                            regionOf[queues[t][k]] = region;
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private static int countOpenGroups(int[] group, boolean[] finished, int searches) {
+        int open = 0;
+        for (int s = 0; s < searches; s++) {
+            if (group[s] == s && !finished[s]) {
+                open++;
+            }
+        }
+        return open;
+    }
+
+    private static boolean isDry(int[] group, int[] heads, int[] tails, int searches, int root) {
+        for (int s = 0; s < searches; s++) {
+            if (heads[s] < tails[s] && findGroup(group, s) == root) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int findGroup(int[] group, int s) {
+        while (group[s] != s) {
+            s = group[s];
+        }
+        return s;
+    }
+
+    private int find(int region) {
+        if (regionParent == null) {
+            return region;
+        }
+        while (regionParent[region] != region) {
+            regionParent[region] = regionParent[regionParent[region]];
+            region = regionParent[region];
+        }
+        return region;
+    }
+
+    private int newRegion() {
+        ensureRegionParent();
+        if (regionCount == regionParent.length) {
+            int oldLength = regionParent.length;
+            regionParent = Arrays.copyOf(regionParent, oldLength * 2);
+            for (int i = oldLength; i < regionParent.length; i++) {
+                regionParent[i] = i;
+            }
+        }
+        return regionCount++;
+    }
+
+    private void ensureRegionParent() {
+        if (regionParent == null) {
+            regionParent = new int[Math.max(16, regionCount * 2)];
+            for (int i = 0; i < regionParent.length; i++) {
+                regionParent[i] = i;
+            }
+        }
+    }
+
+    /**
+     * Which search reached a cave, for the few caves a patch visits. Open
+     * addressing keeps it independent of the maze size.
+     */
+    private static final class CaveMarks {
+        private int[] keys;
+        private int[] values;
+        private int size;
+
+        CaveMarks() {
+            keys = new int[64];
+            values = new int[64];
+            Arrays.fill(keys, -1);
+        }
+
+        int get(int caveId) {
+            for (int i = slot(caveId, keys.length); ; i = (i + 1) & (keys.length - 1)) {
+                if (keys[i] == caveId) {
+                    return values[i];
+                }
+                if (keys[i] == -1) {
+                    return -1;
+                }
+            }
+        }
+
+        // Only called for caves that are not marked yet
+        void put(int caveId, int value) {
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+            insert(keys, values, caveId, value);
+        }
+
+        private void grow() {
+            int[] newKeys = new int[keys.length * 2];
+            int[] newValues = new int[keys.length * 2];
+            Arrays.fill(newKeys, -1);
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != -1) {
+                    insert(newKeys, newValues, keys[i], values[i]);
+                }
+            }
+            keys = newKeys;
+            values = newValues;
+        }
+
+        private static void insert(int[] keys, int[] values, int caveId, int value) {
+            int i = slot(caveId, keys.length);
+            while (keys[i] != -1) {
+                i = (i + 1) & (keys.length - 1);
+            }
+            keys[i] = caveId;
+            values[i] = value;
+        }
+
+        private static int slot(int caveId, int capacity) {
+            return (caveId * 0x9E3779B9) >>> (32 - Integer.numberOfTrailingZeros(capacity));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package Model;
+
+/**
+ * What the player senses in a cave: a Wumpus smell, a pit draft and bat
+ * rustling. Backed by a 3-bit mask; all eight combinations are shared
+ * constants, so reading senses never allocates.
+ */
+public final class Senses {
+    public static final int WUMPUS = 1;
+    public static final int PIT = 2;
+    public static final int BATS = 4;
+
+    private static final Senses[] ALL = new Senses[8];
+
+    static {
+        for (int mask = 0; mask < ALL.length; mask++) {
+            ALL[mask] = new Senses(mask);
+        }
+    }
+
+    private final int mask;
+
+    private Senses(int mask) {
+        this.mask = mask;
+    }
+
+    public static Senses of(int mask) {
+        return ALL[mask & 7];
+    }
+
+    public boolean smellsWumpus() {
+        return (mask & WUMPUS) != 0;
+    }
+
+    public boolean feelsDraft() {
+        return (mask & PIT) != 0;
+    }
+
+    public boolean hearsBats() {
+        return (mask & BATS) != 0;
+    }
+
+    public int getMask() {
+        return mask;
+    }
+
+    @Override
+    public String toString() {
+        return "Senses[wumpus=" + smellsWumpus() + ", draft=" + feelsDraft() + ", bats=" + hearsBats() + "]";
+    }
+}
@@ -0,0 +1,357 @@
+package Model;
+
+import Metrics.Counter;
+import Metrics.Histogram;
+import Metrics.JfrEvents;
+import Metrics.Metrics;
+
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The cave graph of a maze, without any game state.
+ *
+ * Topologies are immutable and therefore safe to share between threads. The
+ * layout only depends on the number of caves, so {@link #of(int)} builds each
+ * size once and every maze of that size reuses it; a new game then only pays
+ * for its hazards.
+ */
+public final class Topology {
+    private static final Histogram BUILD_TIME = Metrics.histogram("maze.build.nanos");
+    private static final Counter CACHE_HITS = Metrics.counter("topology.cacheHits");
+
+    // Softly held so large layouts can be reclaimed once no maze uses them
+    private static final ConcurrentHashMap<Integer, SoftReference<Topology>> CACHE = new ConcurrentHashMap<>();
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+
+    // Unique per instance, so caches can refer to a topology without holding it
+    private final long id = NEXT_ID.incrementAndGet();
+
+    // Compressed sparse row form: the neighbors of cave i are
+    // neighborTargets[neighborOffsets[i] .. neighborOffsets[i + 1] - 1]
+    private final int[] neighborOffsets;
+    private final int[] neighborTargets;
+
+    // Created on the first distance query
+    private volatile DistanceOracle distances;
+
+    // Searched on first use
+    private volatile int[][] automorphisms;
+    private volatile CanonicalLabeling canonicalLabeling;
+
+    private Topology(int[] neighborOffsets, int[] neighborTargets) {
+        this.neighborOffsets = neighborOffsets;
+        this.neighborTargets = neighborTargets;
+    }
+
+    /**
+     * Returns the shared topology for a number of caves, building it on first use.
+     */
+    public static Topology of(int numCaves) {
+        SoftReference<Topology> ref = CACHE.get(numCaves);
+        Topology topology = ref != null ? ref.get() : null;
+        if (topology != null) {
+            CACHE_HITS.increment();
+            return topology;
+        }
+
+        // Two threads may race to build the same size; both results are equal
+        topology = build(numCaves);
+        CACHE.put(numCaves, new SoftReference<>(topology));
+        return topology;
+    }
+
+    /**
+     * Wraps a topology in compressed sparse row form, as read from a save file.
+     * Returns the shared instance instead if the arrays match the cached layout
+     * of the same size. The arrays are adopted, not copied.
+     */
+    static Topology adopt(int[] neighborOffsets, int[] neighborTargets) {
+        SoftReference<Topology> ref = CACHE.get(neighborOffsets.length - 1);
+        Topology cached = ref != null ? ref.get() : null;
+        if (cached != null
+                && Arrays.equals(cached.neighborOffsets, neighborOffsets)
+                && Arrays.equals(cached.neighborTargets, neighborTargets)) {
+            return cached;
+        }
+        return new Topology(neighborOffsets, neighborTargets);
+    }
+
+    public int getCaveCount() {
+        return neighborOffsets.length - 1;
+    }
+
+    public int getNeighborCount(int caveId) {
+        return neighborOffsets[caveId + 1] - neighborOffsets[caveId];
+    }
+
+    public int getNeighbor(int caveId, int index) {
+        return neighborTargets[neighborOffsets[caveId] + index];
+    }
+
+    public boolean areAdjacent(int caveId, int otherId) {
+        for (int i = neighborOffsets[caveId]; i < neighborOffsets[caveId + 1]; i++) {
+            if (neighborTargets[i] == otherId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Distances between caves, shared by every maze on this topology.
+     */
+    public DistanceOracle getDistances() {
+        DistanceOracle oracle = distances;
+        if (oracle == null) {
+            synchronized (this) {
+                oracle = distances;
+                if (oracle == null) {
+                    oracle = new DistanceOracle(this);
+                    distances = oracle;
+                }
+            }
+        }
+        return oracle;
+    }
+
+    /**
+     * The symmetries of this topology, each an array mapping every cave id to
+     * its image, with the identity first. Only topologies of up to
+     * 64 caves are searched; larger ones report
+     * just the identity. The arrays are shared and must not be modified.
+     */
+    public int[][] getAutomorphisms() {
+        int[][] found = automorphisms;
+        if (found == null) {
+            synchronized (this) {
+                found = automorphisms;
+                if (found == null) {
+                    found = Automorphisms.of(this);
+                    automorphisms = found;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * The relabeling that board keys are built on; see {@link CanonicalBoard}.
+     */
+    CanonicalLabeling getCanonicalLabeling() {
+        CanonicalLabeling labeling = canonicalLabeling;
+        if (labeling == null) {
+            synchronized (this) {
+                labeling = canonicalLabeling;
+                if (labeling == null) {
+                    labeling = CanonicalLabeling.of(this);
+                    canonicalLabeling = labeling;
+                }
+            }
+        }
+        return labeling;
+    }
+
+    /**
+     * Identifies this instance. Equal layouts built separately get different
+     * ids, which only costs cache hits.
+     */
+    long getId() {
+        return id;
+    }
+
+    private static Topology build(int numCaves) {
+        long start = System.nanoTime();
+        JfrEvents.MazeBuild event = new JfrEvents.MazeBuild();
+        event.begin();
+
+        Topology topology;
+        if (numCaves > 20) {
+            // Large mazes go straight into the flat arrays
+            topology = connectCubicRing(numCaves);
+        } else {
+            Builder builder = new Builder(numCaves);
+            if (numCaves < 20) {
+                // If we don't have enough caves, fallback to simple connection
+                builder.connectSimple();
+            } else {
+                builder.connectPentagonStructure();
+            }
+            topology = builder.compact();
+        }
+
+        event.caves = numCaves;
+        event.commit();
+        BUILD_TIME.recordSince(start);
+        return topology;
+    }
+
+    /**
+     * Builds a connected maze where every cave has three neighbors: a ring
+     * through all caves, plus one chord from each cave in the first half of the
+     * ring to a shuffled partner in the second half. With an odd number of caves
+     * the last cave only has its two ring neighbors. Runs in O(n) time and memory.
+     */
+    private static Topology connectCubicRing(int numCaves) {
+        int half = numCaves / 2;
+
+        // Seeded by size so the same cave count always gives the same topology
+        Random layoutRandom = new Random(numCaves);
+        int[] partner = new int[half];
+        for (int i = 0; i < half; i++) {
+            partner[i] = i;
+        }
+        for (int i = half - 1; i > 0; i--) {
+            int j = layoutRandom.nextInt(i + 1);
+            int swap = partner[i];
+            partner[i] = partner[j];
+            partner[j] = swap;
+        }
+
+        // A chord must not duplicate a ring edge; only the two caves next to the
+        // seams between the halves can be affected
+        for (int i = 0; i < half; i++) {
+            int j = (i + 1) % half;
+            while (isRingEdge(i, half + partner[i], numCaves)) {
+                int swap = partner[i];
+                partner[i] = partner[j];
+                partner[j] = swap;
+                j = (j + 1) % half;
+            }
+        }
+
+        int[] neighborOffsets = new int[numCaves + 1];
+        for (int i = 0; i < numCaves; i++) {
+            neighborOffsets[i + 1] = neighborOffsets[i] + (i < 2 * half ? 3 : 2);
+        }
+
+        int[] neighborTargets = new int[neighborOffsets[numCaves]];
+        for (int i = 0; i < numCaves; i++) {
+            int offset = neighborOffsets[i];
+            neighborTargets[offset] = (i + numCaves - 1) % numCaves;
+            neighborTargets[offset + 1] = (i + 1) % numCaves;
+        }
+        for (int i = 0; i < half; i++) {
+            int other = half + partner[i];
+            neighborTargets[neighborOffsets[i] + 2] = other;
+            neighborTargets[neighborOffsets[other] + 2] = i;
+        }
+        return new Topology(neighborOffsets, neighborTargets);
+    }
+
+    private static boolean isRingEdge(int id1, int id2, int numCaves) {
+        int distance = Math.abs(id1 - id2);
+        return distance == 1 || distance == numCaves - 1;
+    }
+
+    /**
+     * Collects edges for small mazes, then freezes them into a topology.
+     */
+    private static final class Builder {
+        private final int numCaves;
+        private final int[][] pendingNeighbors;
+        private final int[] pendingCounts;
+
+        Builder(int numCaves) {
+            this.numCaves = numCaves;
+            pendingNeighbors = new int[numCaves][];
+            pendingCounts = new int[numCaves];
+        }
+
+        void connectPentagonStructure() {
+            // Connect outer pentagon (first 5 caves)
+            for (int i = 0; i < 5; i++) {
+                int nextIndex = (i + 1) % 5;
+                connectCaves(i, nextIndex);
+            }
+
+            // Connect middle layer (caves 5-14) in a circle
+            for (int i = 0; i < 10; i++) {
+                int nextIndex = (i + 1) % 10 + 5;
+                connectCaves(i + 5, nextIndex);
+            }
+
+            // Connect inner pentagon (caves 15-19)
+            for (int i = 0; i < 5; i++) {
+                int nextIndex = (i + 1) % 5 + 15;
+                connectCaves(i + 15, nextIndex);
+            }
+
+            // Connect outer pentagon to middle layer
+            for (int i = 0; i < 5; i++) {
+                // Each vertex of outer pentagon connects to 2 caves in middle layer
+                int middleIndex1 = (i * 2) % 10 + 5;
+                int middleIndex2 = (i * 2 + 1) % 10 + 5;
+
+                connectCaves(i, middleIndex1);
+                connectCaves(i, middleIndex2);
+            }
+
+            // Connect middle layer to inner pentagon
+            for (int i = 0; i < 10; i++) {
+                // Each middle layer cave connects to 1 inner pentagon cave
+                int innerIndex = (i / 2) % 5 + 15;
+                connectCaves(i + 5, innerIndex);
+            }
+        }
+
+        void connectSimple() {
+            // For simplicity, connect each cave to 3 others
+            for (int i = 0; i < numCaves; i++) {
+                // Connect to the next 3 caves (wrapping around)
+                for (int j = 1; j <= 3; j++) {
+                    int neighborIndex = (i + j) % numCaves;
+                    connectCaves(i, neighborIndex);
+                }
+            }
+        }
+
+        private void connectCaves(int id1, int id2) {
+            if (id1 == id2 || isPendingNeighbor(id1, id2)) {
+                return;
+            }
+            appendPendingNeighbor(id1, id2);
+            appendPendingNeighbor(id2, id1);
+        }
+
+        private boolean isPendingNeighbor(int id1, int id2) {
+            int[] list = pendingNeighbors[id1];
+            for (int i = 0; i < pendingCounts[id1]; i++) {
+                if (list[i] == id2) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void appendPendingNeighbor(int id, int neighborId) {
+            int[] list = pendingNeighbors[id];
+            if (list == null) {
+                list = new int[4];
+                pendingNeighbors[id] = list;
+            } else if (pendingCounts[id] == list.length) {
+                list = Arrays.copyOf(list, list.length * 2);
+                pendingNeighbors[id] = list;
+            }
+            list[pendingCounts[id]++] = neighborId;
+        }
+
+        Topology compact() {
+            int[] neighborOffsets = new int[numCaves + 1];
+            for (int i = 0; i < numCaves; i++) {
+                neighborOffsets[i + 1] = neighborOffsets[i] + pendingCounts[i];
+            }
+
+            int[] neighborTargets = new int[neighborOffsets[numCaves]];
+            for (int i = 0; i < numCaves; i++) {
+                if (pendingCounts[i] > 0) {
+                    System.arraycopy(pendingNeighbors[i], 0, neighborTargets, neighborOffsets[i], pendingCounts[i]);
+                }
+            }
+            return new Topology(neighborOffsets, neighborTargets);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package Model;
+
+import Metrics.Histogram;
+import Metrics.JfrEvents;
+import Metrics.Metrics;
+
+/**
+ * A winnability analysis that can run off the game thread. The model
+ * captures the maze and a copy-on-write hazard snapshot, {@link #compute()}
+ * labels the safe regions on any thread, and the model adopts the result
+ * only if its hazards have not changed in the meantime.
+ */
+public final class WinnabilityAnalysis {
+    private static final Histogram WINNABILITY_TIME = Metrics.histogram("winnable.compute.nanos");
+
+    private final IMaze maze;
+    private final HazardLayers hazards;
+    private final int hazardVersion;
+    private final int wumpusCaveId;
+
+    private SafeRegions safeRegions;
+    private int[] wumpusRegions;
+
+    WinnabilityAnalysis(IMaze maze, HazardLayers hazards, int hazardVersion, int wumpusCaveId) {
+        this.maze = maze;
+        this.hazards = hazards;
+        this.hazardVersion = hazardVersion;
+        this.wumpusCaveId = wumpusCaveId;
+    }
+
+    /**
+     * Labels the safe regions of the captured hazard state. Throws
+     * CancellationException if the calling thread is interrupted.
+     *
+     * @return This analysis, for chaining
+     */
+    public WinnabilityAnalysis compute() {
+        long start = System.nanoTime();
+        JfrEvents.WinnabilityCheck event = new JfrEvents.WinnabilityCheck();
+        event.begin();
+
+        SafeRegions regions = SafeRegions.compute(maze, hazards);
+        wumpusRegions = regions.regionsAround(maze, wumpusCaveId);
+        safeRegions = regions;
+
+        event.caves = maze.getCaveCount();
+        event.commit();
+        WINNABILITY_TIME.recordSince(start);
+        return this;
+    }
+
+    public boolean isComputed() {
+        return safeRegions != null;
+    }
+
+    IMaze getMaze() {
+        return maze;
+    }
+
+    int getHazardVersion() {
+        return hazardVersion;
+    }
+
+    SafeRegions getSafeRegions() {
+        return safeRegions;
+    }
+
+    int[] getWumpusRegions() {
+        return wumpusRegions;
+    }
+}
@@ -1,9 +1,6 @@
 package Model;
 
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.Queue;
-import java.util.Set;
+import java.util.Arrays;
 
 public class WinnabilityChecker {
     /**
@@ -30,11 +27,13 @@ public class WinnabilityChecker {
         }
 
         // Use BFS to find all reachable safe caves from player's position
-        Set<ICave> reachableSafeCaves = findReachableSafeCaves(player.getCurrentCave());
+        boolean[] reachableSafeCaves = findReachableSafeCaves(maze, player.getCurrentCave().getId());
 
         // Check if any cave adjacent to Wumpus is safe and reachable
-        for (ICave cave : wumpusCave.getNeighbors()) {
-            if (!cave.isDangerous() && reachableSafeCaves.contains(cave)) {
+        int wumpusId = wumpusCave.getId();
+        for (int i = 0; i < maze.getNeighborCount(wumpusId); i++) {
+            int caveId = maze.getNeighbor(wumpusId, i);
+            if (!maze.isDangerous(caveId) && reachableSafeCaves[caveId]) {
                 return true;
             }
         }
@@ -62,29 +61,83 @@ public class WinnabilityChecker {
      * A cave is safely reachable if there exists a path from the starting cave
      * to that cave that does not go through any dangerous caves.
      *
-     * @param startCave The starting cave
-     * @return A set of all safely reachable caves
+     * @param maze The game maze
+     * @param startCaveId The id of the starting cave
+     * @return Reachability flags indexed by cave id
      */
-    private static Set<ICave> findReachableSafeCaves(ICave startCave) {
-        Set<ICave> reachableCaves = new HashSet<>();
-        Queue<ICave> queue = new LinkedList<>();
-        Set<ICave> visited = new HashSet<>();
-
-        queue.add(startCave);
-        visited.add(startCave);
-
-        while (!queue.isEmpty()) {
-            ICave current = queue.poll();
-            reachableCaves.add(current);
-
-            for (ICave neighbor : current.getNeighbors()) {
-                if (!visited.contains(neighbor) && !neighbor.isDangerous()) {
-                    queue.add(neighbor);
-                    visited.add(neighbor);
+    private static boolean[] findReachableSafeCaves(IMaze maze, int startCaveId) {
+        int numCaves = maze.getCaveCount();
+        boolean[] visited = new boolean[numCaves];
+        int[] queue = new int[numCaves];
+        int head = 0;
+        int tail = 0;
+
+        queue[tail++] = startCaveId;
+        visited[startCaveId] = true;
+
+        while (head < tail) {
+            int current = queue[head++];
+
+            for (int i = 0; i < maze.getNeighborCount(current); i++) {
+                int neighbor = maze.getNeighbor(current, i);
+                if (!visited[neighbor] && !maze.isDangerous(neighbor)) {
+                    queue[tail++] = neighbor;
+                    visited[neighbor] = true;
                 }
             }
         }
 
-        return reachableCaves;
+        return visited;
+    }
+
+    /**
+     * Finds a shortest route from a cave to a cave next to the Wumpus, using
+     * only caves without a pit or the Wumpus. Bats are ignored.
+     *
+     * @param maze The game maze
+     * @param startCaveId The cave the player is in
+     * @return The caves to move through in order, ending next to the Wumpus;
+     *         empty if the start already is, or null if no route exists
+     */
+    public static int[] findWinningRoute(IMaze maze, int startCaveId) {
+        ICave wumpusCave = findWumpusCave(maze);
+        if (wumpusCave == null || maze.isDangerous(startCaveId)) {
+            return null;
+        }
+        int wumpusId = wumpusCave.getId();
+
+        int numCaves = maze.getCaveCount();
+        int[] parent = new int[numCaves];
+        int[] queue = new int[numCaves];
+        Arrays.fill(parent, -2);
+        int head = 0;
+        int tail = 0;
+
+        queue[tail++] = startCaveId;
+        parent[startCaveId] = -1;
+
+        while (head < tail) {
+            int current = queue[head++];
+            if (maze.areAdjacent(current, wumpusId)) {
+                int length = 0;
+                for (int caveId = current; caveId != startCaveId; caveId = parent[caveId]) {
+                    length++;
+                }
+                int[] route = new int[length];
+                for (int caveId = current; caveId != startCaveId; caveId = parent[caveId]) {
+                    route[--length] = caveId;
+                }
+                return route;
+            }
+
+            for (int i = 0; i < maze.getNeighborCount(current); i++) {
+                int neighbor = maze.getNeighbor(current, i);
+                if (parent[neighbor] == -2 && !maze.isDangerous(neighbor)) {
+                    parent[neighbor] = current;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+        return null;
     }
 }
@@ -0,0 +1,90 @@
+package Server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A blocking client for {@link GameServer}. One instance is one connection
+ * and must not be shared between threads.
+ */
+public class GameClient implements Closeable {
+    private final Socket socket;
+    private final BufferedReader in;
+    private final Writer out;
+
+    public GameClient(int port) throws IOException {
+        this(InetAddress.getLoopbackAddress().getHostAddress(), port);
+    }
+
+    public GameClient(String host, int port) throws IOException {
+        socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+        in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+        out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Starts a game with a server-chosen seed.
+     */
+    public SessionState newGame(int numCaves, int numPits, int numBats, int numArrows) throws IOException {
+        return parse(request("NEW " + numCaves + " " + numPits + " " + numBats + " " + numArrows), true);
+    }
+
+    public SessionState newGame(int numCaves, int numPits, int numBats, int numArrows, long seed)
+            throws IOException {
+        return parse(request("NEW " + numCaves + " " + numPits + " " + numBats + " " + numArrows + " " + seed), true);
+    }
+
+    public SessionState move(long sessionId, int caveId) throws IOException {
+        return parse(request("MOVE " + sessionId + " " + caveId), false);
+    }
+
+    public SessionState shoot(long sessionId, int caveId) throws IOException {
+        return parse(request("SHOOT " + sessionId + " " + caveId), false);
+    }
+
+    public SessionState state(long sessionId) throws IOException {
+        return parse(request("STATE " + sessionId), false);
+    }
+
+    public void closeSession(long sessionId) throws IOException {
+        String response = request("CLOSE " + sessionId);
+        if (!response.equals("OK")) {
+            throw new IOException(response);
+        }
+    }
+
+    /**
+     * Sends one raw request line and waits for its response line.
+     */
+    public String request(String line) throws IOException {
+        out.write(line);
+        out.write('\n');
+        out.flush();
+        String response = in.readLine();
+        if (response == null) {
+            throw new IOException("Server closed the connection");
+        }
+        return response;
+    }
+
+    private static SessionState parse(String response, boolean withSessionId) throws IOException {
+        if (!response.startsWith("OK ")) {
+            throw new IOException(response);
+        }
+        return SessionState.parse(response.substring(3), withSessionId);
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
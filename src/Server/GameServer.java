@@ -0,0 +1,215 @@
+package Server;
+
+import Metrics.Histogram;
+import Metrics.Metrics;
+import Model.GameRandom;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hosts many independent games for clients on the local machine.
+ *
+ * The protocol is line based text, one request and one response per line:
+ * <pre>
+ *   NEW caves pits bats arrows [seed]  -&gt;  OK session cave senses arrows outcome neighbors
+ *   MOVE session cave                  -&gt;  OK cave senses arrows outcome neighbors
+ *   SHOOT session cave                 -&gt;  OK cave senses arrows outcome neighbors
+ *   STATE session                      -&gt;  OK cave senses arrows outcome neighbors
+ *   CLOSE session                      -&gt;  OK
+ * </pre>
+ * senses is a Senses mask and neighbors a comma separated list of the
+ * player cave's neighbors. Failures answer {@code ERR message}.
+ *
+ * Each connection is served by its own thread; sessions are independent of
+ * connections and serialize their own actions. Sessions left unused for the
+ * idle timeout are evicted.
+ *
+ * Board settings are bounded so one request cannot exhaust the heap shared
+ * by every session: at most {@value #MAX_CAVES} caves, and enough caves left
+ * over for the Wumpus and the player.
+ */
+public class GameServer {
+    static final int MAX_CAVES = 10_000;
+
+    private static final Histogram REQUEST_TIME = Metrics.histogram("server.request.nanos");
+
+    private final SessionRegistry sessions = new SessionRegistry();
+    private final GameRandom seeds = new GameRandom();
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections;
+    private final ScheduledExecutorService evictor;
+
+    /**
+     * Binds to the loopback interface.
+     *
+     * @param port The port, or 0 for any free port
+     * @param idleTimeoutMillis Sessions unused for this long are evicted
+     */
+    public GameServer(int port, long idleTimeoutMillis) throws IOException {
+        serverSocket = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+        connections = Executors.newCachedThreadPool(daemonThreads("connection"));
+        evictor = Executors.newSingleThreadScheduledExecutor(daemonThreads("evictor"));
+
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        long period = Math.max(1, idleTimeoutMillis / 4);
+        evictor.scheduleAtFixedRate(() -> sessions.evictIdle(idleNanos), period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public SessionRegistry getSessions() {
+        return sessions;
+    }
+
+    /**
+     * Accepts connections on a background thread and returns immediately.
+     */
+    public void start() {
+        Thread acceptor = new Thread(this::acceptLoop, "acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public void stop() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow();
+        evictor.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.execute(() -> serve(socket));
+            } catch (SocketException e) {
+                return; // Closed by stop()
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             Writer out = new BufferedWriter(
+                     new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                long start = System.nanoTime();
+                String response = handle(line);
+                REQUEST_TIME.recordSince(start);
+                out.write(response);
+                out.write('\n');
+                out.flush();
+            }
+        } catch (IOException e) {
+            // The client went away
+        }
+    }
+
+    /**
+     * Handles one request line.
+     *
+     * @return The response line, without the line break
+     */
+    String handle(String line) {
+        String[] parts = line.trim().split(" +");
+        try {
+            switch (parts[0]) {
+                case "NEW": {
+                    long seed;
+                    synchronized (seeds) {
+                        seed = parts.length > 5 ? Long.parseLong(parts[5]) : seeds.nextLong();
+                    }
+                    int caves = Integer.parseInt(parts[1]);
+                    int pits = Integer.parseInt(parts[2]);
+                    int bats = Integer.parseInt(parts[3]);
+                    int arrows = Integer.parseInt(parts[4]);
+                    if (caves > MAX_CAVES || pits < 0 || bats < 0 || arrows < 0
+                            || (long) pits + bats + 2 > caves) {
+                        return "ERR bad settings, at most " + MAX_CAVES
+                                + " caves with room for the Wumpus and the player";
+                    }
+                    GameSession session = sessions.create(seed, caves, pits, bats, arrows);
+                    return "OK " + session.getId() + session.execute(null, 0).substring(2);
+                }
+                case "MOVE":
+                case "SHOOT":
+                    return withSession(parts[1]).execute(parts[0], Integer.parseInt(parts[2]));
+                case "STATE":
+                    return withSession(parts[1]).execute(null, 0);
+                case "CLOSE":
+                    return sessions.close(Long.parseLong(parts[1])) ? "OK" : "ERR unknown session " + parts[1];
+                default:
+                    return "ERR unknown command " + parts[0];
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            return "ERR malformed request";
+        } catch (UnknownSessionException e) {
+            return "ERR unknown session " + e.getMessage();
+        } catch (RuntimeException e) {
+            return "ERR " + e;
+        }
+    }
+
+    private GameSession withSession(String id) {
+        GameSession session = sessions.get(Long.parseLong(id));
+        if (session == null) {
+            throw new UnknownSessionException(id);
+        }
+        return session;
+    }
+
+    private static class UnknownSessionException extends RuntimeException {
+        UnknownSessionException(String id) {
+            super(id, null, false, false);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Command line entry point: [port] [idleTimeoutSeconds]
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7777;
+        long idleSeconds = args.length > 1 ? Long.parseLong(args[1]) : 300;
+
+        Metrics.configureFromSystemProperties();
+
+        GameServer server = new GameServer(port, idleSeconds * 1000);
+        server.start();
+        System.out.println("Hunt the Wumpus server listening on localhost:" + server.getPort());
+
+        // Serve until the process is killed
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,89 @@
+package Server;
+
+import Model.GameModel;
+import Model.GameRandom;
+import Model.IMaze;
+
+/**
+ * One hosted game. All access goes through {@link #execute}, which holds the
+ * session's lock, so actions on a session are applied one at a time even if
+ * several connections share it.
+ */
+public class GameSession {
+    private final long id;
+    private final GameModel model;
+    private volatile long lastAccessNanos;
+    private boolean closed;
+
+    GameSession(long id, long seed, int numCaves, int numPits, int numBats, int numArrows) {
+        this.id = id;
+        // Server games have no views and no undo
+        model = new GameModel(new GameRandom(seed));
+        model.setListenersEnabled(false);
+        model.setHistoryEnabled(false);
+        model.initialize(numCaves, numPits, numBats, numArrows);
+        touch();
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    long getLastAccessNanos() {
+        return lastAccessNanos;
+    }
+
+    private void touch() {
+        lastAccessNanos = System.nanoTime();
+    }
+
+    /**
+     * Applies a move or shot, or just reads the state when action is null.
+     *
+     * @return The protocol response line
+     */
+    synchronized String execute(String action, int caveId) {
+        if (closed) {
+            return "ERR unknown session " + id;
+        }
+        touch();
+
+        if (action != null) {
+            if (model.isGameOver()) {
+                return "ERR game over";
+            }
+            if (caveId < 0 || caveId >= model.getMaze().getCaveCount()) {
+                return "ERR no cave " + caveId;
+            }
+            boolean accepted = action.equals("MOVE") ? model.movePlayer(caveId) : model.shootArrow(caveId);
+            if (!accepted) {
+                return "ERR illegal " + action.toLowerCase() + " to " + caveId;
+            }
+        }
+        return describeState();
+    }
+
+    synchronized void close() {
+        closed = true;
+    }
+
+    // OK <player cave> <senses mask> <arrows> <outcome> <neighbor,neighbor,...>
+    private String describeState() {
+        IMaze maze = model.getMaze();
+        int caveId = model.getPlayer().getCurrentCave().getId();
+
+        StringBuilder sb = new StringBuilder(48);
+        sb.append("OK ").append(caveId)
+                .append(' ').append(model.senses().getMask())
+                .append(' ').append(model.getPlayer().getArrows())
+                .append(' ').append(model.getOutcome())
+                .append(' ');
+        for (int i = 0; i < maze.getNeighborCount(caveId); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(maze.getNeighbor(caveId, i));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,115 @@
+package Server;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Plays random games against a server from many concurrent connections and
+ * reports action latency percentiles and throughput.
+ */
+public class LoadTestClient {
+    /**
+     * Command line entry point: [port] [clients] [gamesPerClient]
+     * A port of 0 starts an embedded server on a free port.
+     */
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+
+        GameServer embedded = null;
+        if (port == 0) {
+            embedded = new GameServer(0, 60_000);
+            embedded.start();
+            port = embedded.getPort();
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        List<Future<long[]>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            results.add(pool.submit(playGames(port, games, c)));
+        }
+
+        // Merge the per-client latencies
+        long[][] perClient = new long[clients][];
+        int total = 0;
+        for (int c = 0; c < clients; c++) {
+            perClient[c] = results.get(c).get();
+            total += perClient[c].length;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+
+        long[] latencies = new long[total];
+        int offset = 0;
+        for (long[] client : perClient) {
+            System.arraycopy(client, 0, latencies, offset, client.length);
+            offset += client.length;
+        }
+        Arrays.sort(latencies);
+
+        System.out.printf("clients=%d games=%d actions=%d%n", clients, clients * games, total);
+        System.out.printf("latency p50=%.1fus p99=%.1fus max=%.1fus%n",
+                percentile(latencies, 0.50) / 1e3, percentile(latencies, 0.99) / 1e3,
+                latencies.length > 0 ? latencies[latencies.length - 1] / 1e3 : 0.0);
+        System.out.printf("%.0f actions/s%n", total / seconds);
+
+        if (embedded != null) {
+            embedded.stop();
+        }
+    }
+
+    /**
+     * One client: plays random walks with occasional shots and records the
+     * round-trip time of every action.
+     */
+    private static Callable<long[]> playGames(int port, int games, long clientSeed) {
+        return () -> {
+            long[] latencies = new long[1024];
+            int count = 0;
+            Random random = new Random(clientSeed);
+
+            try (GameClient client = new GameClient(port)) {
+                for (int g = 0; g < games; g++) {
+                    SessionState state = client.newGame(20, 2, 2, 3);
+                    long sessionId = state.getSessionId();
+
+                    while (!state.isGameOver()) {
+                        int[] neighbors = state.getNeighborIds();
+                        int target = neighbors[random.nextInt(neighbors.length)];
+                        boolean shoot = random.nextInt(8) == 0;
+
+                        long t0 = System.nanoTime();
+                        state = shoot ? client.shoot(sessionId, target) : client.move(sessionId, target);
+                        long elapsed = System.nanoTime() - t0;
+
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = elapsed;
+                    }
+                    client.closeSession(sessionId);
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            return Arrays.copyOf(latencies, count);
+        };
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
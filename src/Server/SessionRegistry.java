@@ -0,0 +1,62 @@
+package Server;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * All live sessions, keyed by id. Lookups are lock-free; each session
+ * serializes its own actions.
+ */
+public class SessionRegistry {
+    private final Map<Long, GameSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    public GameSession create(long seed, int numCaves, int numPits, int numBats, int numArrows) {
+        long id = nextId.getAndIncrement();
+        GameSession session = new GameSession(id, seed, numCaves, numPits, numBats, numArrows);
+        sessions.put(id, session);
+        return session;
+    }
+
+    /**
+     * @return The session, or null if it does not exist or was evicted
+     */
+    public GameSession get(long id) {
+        return sessions.get(id);
+    }
+
+    public boolean close(long id) {
+        GameSession session = sessions.remove(id);
+        if (session == null) {
+            return false;
+        }
+        session.close();
+        return true;
+    }
+
+    /**
+     * Drops every session that has not been used for the given time.
+     *
+     * @return The number of evicted sessions
+     */
+    public int evictIdle(long idleNanos) {
+        long now = System.nanoTime();
+        int evicted = 0;
+        Iterator<GameSession> it = sessions.values().iterator();
+        while (it.hasNext()) {
+            GameSession session = it.next();
+            if (now - session.getLastAccessNanos() > idleNanos) {
+                it.remove();
+                session.close();
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+}
@@ -0,0 +1,75 @@
+package Server;
+
+import Model.GameOutcome;
+import Model.Senses;
+
+/**
+ * A session's state as reported by the server after each request.
+ */
+public class SessionState {
+    private final long sessionId;
+    private final int playerCaveId;
+    private final Senses senses;
+    private final int arrows;
+    private final GameOutcome outcome;
+    private final int[] neighborIds;
+
+    private SessionState(long sessionId, int playerCaveId, Senses senses, int arrows,
+                         GameOutcome outcome, int[] neighborIds) {
+        this.sessionId = sessionId;
+        this.playerCaveId = playerCaveId;
+        this.senses = senses;
+        this.arrows = arrows;
+        this.outcome = outcome;
+        this.neighborIds = neighborIds;
+    }
+
+    // [session] cave senses arrows outcome neighbors
+    static SessionState parse(String text, boolean withSessionId) {
+        String[] parts = text.split(" ");
+        int i = 0;
+        long sessionId = withSessionId ? Long.parseLong(parts[i++]) : -1;
+        int caveId = Integer.parseInt(parts[i++]);
+        Senses senses = Senses.of(Integer.parseInt(parts[i++]));
+        int arrows = Integer.parseInt(parts[i++]);
+        GameOutcome outcome = GameOutcome.valueOf(parts[i++]);
+
+        String[] neighbors = i < parts.length ? parts[i].split(",") : new String[0];
+        int[] neighborIds = new int[neighbors.length];
+        for (int n = 0; n < neighbors.length; n++) {
+            neighborIds[n] = Integer.parseInt(neighbors[n]);
+        }
+        return new SessionState(sessionId, caveId, senses, arrows, outcome, neighborIds);
+    }
+
+    /**
+     * @return The session id; only set on the response to a new game
+     */
+    public long getSessionId() {
+        return sessionId;
+    }
+
+    public int getPlayerCaveId() {
+        return playerCaveId;
+    }
+
+    public Senses getSenses() {
+        return senses;
+    }
+
+    public int getArrows() {
+        return arrows;
+    }
+
+    public GameOutcome getOutcome() {
+        return outcome;
+    }
+
+    public boolean isGameOver() {
+        return outcome != GameOutcome.ONGOING;
+    }
+
+    public int[] getNeighborIds() {
+        return neighborIds.clone();
+    }
+}
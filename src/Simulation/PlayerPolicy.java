@@ -0,0 +1,39 @@
+package Simulation;
+
+import Model.IGameModel;
+
+/**
+ * Decides the next action of a simulated player.
+ *
+ * Actions are encoded as plain ints so a game loop never allocates: a
+ * non-negative value moves to that cave id, and {@link #shoot(int)} encodes
+ * a shot. A policy instance is only ever used by one thread at a time.
+ */
+public interface PlayerPolicy {
+    /**
+     * Called before each game with that game's seed.
+     */
+    void reset(long seed);
+
+    /**
+     * @param model The running game
+     * @return The encoded next action
+     */
+    int chooseAction(IGameModel model);
+
+    static int move(int caveId) {
+        return caveId;
+    }
+
+    static int shoot(int caveId) {
+        return ~caveId;
+    }
+
+    static boolean isShot(int action) {
+        return action < 0;
+    }
+
+    static int targetOf(int action) {
+        return action < 0 ? ~action : action;
+    }
+}
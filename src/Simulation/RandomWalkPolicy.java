@@ -0,0 +1,31 @@
+package Simulation;
+
+import Model.IGameModel;
+import Model.IMaze;
+
+import java.util.Random;
+
+/**
+ * Baseline policy: wanders to random neighbors and fires at a random
+ * neighbor whenever the Wumpus can be smelled.
+ */
+public class RandomWalkPolicy implements PlayerPolicy {
+    private final Random random = new Random();
+
+    @Override
+    public void reset(long seed) {
+        random.setSeed(seed);
+    }
+
+    @Override
+    public int chooseAction(IGameModel model) {
+        IMaze maze = model.getMaze();
+        int caveId = model.getPlayer().getCurrentCave().getId();
+        int neighbor = maze.getNeighbor(caveId, random.nextInt(maze.getNeighborCount(caveId)));
+
+        if (model.canSmellWumpus()) {
+            return PlayerPolicy.shoot(neighbor);
+        }
+        return PlayerPolicy.move(neighbor);
+    }
+}
@@ -0,0 +1,109 @@
+package Simulation;
+
+import Model.ActionLog;
+import Model.GameBoard;
+import Model.GameModel;
+import Model.GameRandom;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Replays action logs headlessly, e.g. to reproduce a reported game, and
+ * records logs of simulated games.
+ */
+public class ReplayRunner {
+    /**
+     * Replays the log on a model with listeners, history and logging off.
+     *
+     * @return The model after the last action
+     */
+    public static GameModel replay(ActionLog log) {
+        GameModel model = new GameModel(new GameRandom());
+        model.setListenersEnabled(false);
+        model.setHistoryEnabled(false);
+        model.setActionLogEnabled(false);
+        int applied = log.replay(model);
+        if (applied < log.size()) {
+            throw new IllegalStateException("Log diverged at action " + applied + " of " + log.size());
+        }
+        return model;
+    }
+
+    /**
+     * Plays one simulated game and returns its log.
+     */
+    public static ActionLog record(SimulationConfig config, PlayerPolicy policy, long seed) {
+        // The model draws its board seed from the same source playGame
+        // reseeds, so the seed alone decides the game
+        GameRandom random = new GameRandom();
+        GameModel model = new GameModel(random);
+        model.setListenersEnabled(false);
+        model.setHistoryEnabled(false);
+        SimulationRunner.playGame(model, random, policy, config, seed);
+        return model.getActionLog();
+    }
+
+    /**
+     * Command line entry point:
+     * record caves pits bats arrows seed file [maxTurns]
+     * replay file [repeats]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 7 && args[0].equals("record")) {
+            int maxTurns = args.length > 7 ? Integer.parseInt(args[7]) : 10_000;
+            SimulationConfig config = new SimulationConfig(
+                    Integer.parseInt(args[1]), Integer.parseInt(args[2]),
+                    Integer.parseInt(args[3]), Integer.parseInt(args[4]), maxTurns);
+            ActionLog log = record(config, new RandomWalkPolicy(), Long.parseLong(args[5]));
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Paths.get(args[6])))) {
+                log.writeTo(out);
+            }
+            System.out.println("Recorded " + log.size() + " actions in " + log.byteSize() + " bytes");
+        } else if (args.length >= 2 && args[0].equals("replay")) {
+            ActionLog log;
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(Paths.get(args[1])))) {
+                log = ActionLog.readFrom(in);
+            }
+            int repeats = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+
+            GameModel model = new GameModel(new GameRandom());
+            model.setListenersEnabled(false);
+            model.setHistoryEnabled(false);
+            model.setActionLogEnabled(false);
+            model.setMovingHazards(log.isMovingHazards());
+
+            // Every repeat needs a fresh board, since playing moves hazards on
+            // its maze; generation is timed separately from the actions
+            long boardNanos = 0;
+            long actionNanos = 0;
+            for (int i = 0; i < repeats; i++) {
+                long start = System.nanoTime();
+                GameBoard board = log.generateBoard();
+                boardNanos += System.nanoTime() - start;
+
+                model.initialize(board, log.getNumArrows());
+                long actionsStart = System.nanoTime();
+                int applied = log.applyActions(model);
+                actionNanos += System.nanoTime() - actionsStart;
+                if (applied < log.size()) {
+                    throw new IllegalStateException("Log diverged at action " + applied + " of " + log.size());
+                }
+            }
+
+            System.out.println("Outcome " + model.getOutcome() + " in cave "
+                    + model.getPlayer().getCurrentCave().getId() + " after " + log.size() + " actions");
+            System.out.printf("board %.1f ms, %.0f actions/s%n", boardNanos / 1e6 / repeats,
+                    (double) log.size() * repeats / (actionNanos / 1e9));
+        } else {
+            System.err.println("Usage: ReplayRunner record <caves> <pits> <bats> <arrows> <seed> <file> [maxTurns]");
+            System.err.println("       ReplayRunner replay <file> [repeats]");
+            System.exit(1);
+        }
+    }
+}
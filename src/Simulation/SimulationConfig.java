@@ -0,0 +1,47 @@
+package Simulation;
+
+/**
+ * Board settings for a batch of simulated games.
+ */
+public class SimulationConfig {
+    private final int numCaves;
+    private final int numPits;
+    private final int numBats;
+    private final int numArrows;
+    private final int maxTurns;
+
+    public SimulationConfig(int numCaves, int numPits, int numBats, int numArrows) {
+        this(numCaves, numPits, numBats, numArrows, 10_000);
+    }
+
+    /**
+     * @param maxTurns Games still running after this many actions are counted as unfinished
+     */
+    public SimulationConfig(int numCaves, int numPits, int numBats, int numArrows, int maxTurns) {
+        this.numCaves = numCaves;
+        this.numPits = numPits;
+        this.numBats = numBats;
+        this.numArrows = numArrows;
+        this.maxTurns = maxTurns;
+    }
+
+    public int getNumCaves() {
+        return numCaves;
+    }
+
+    public int getNumPits() {
+        return numPits;
+    }
+
+    public int getNumBats() {
+        return numBats;
+    }
+
+    public int getNumArrows() {
+        return numArrows;
+    }
+
+    public int getMaxTurns() {
+        return maxTurns;
+    }
+}
@@ -0,0 +1,119 @@
+package Simulation;
+
+import Model.GameOutcome;
+
+/**
+ * Aggregated outcome counts and game lengths for a batch of simulated games.
+ * Each worker fills its own instance and the runner merges them at the end.
+ */
+public class SimulationResult {
+    // Game lengths at or above this are counted in the last histogram bucket
+    public static final int HISTOGRAM_SIZE = 128;
+
+    private long games;
+    private long wins;
+    private long eatenByWumpus;
+    private long fellInPit;
+    private long outOfArrows;
+    private long unfinished;
+    private long totalTurns;
+    private int minTurns = Integer.MAX_VALUE;
+    private int maxTurns;
+    private final long[] turnHistogram = new long[HISTOGRAM_SIZE];
+
+    void record(GameOutcome outcome, int turns) {
+        games++;
+        switch (outcome) {
+            case WON:
+                wins++;
+                break;
+            case EATEN_BY_WUMPUS:
+                eatenByWumpus++;
+                break;
+            case FELL_IN_PIT:
+                fellInPit++;
+                break;
+            case OUT_OF_ARROWS:
+                outOfArrows++;
+                break;
+            default:
+                unfinished++;
+        }
+
+        totalTurns += turns;
+        minTurns = Math.min(minTurns, turns);
+        maxTurns = Math.max(maxTurns, turns);
+        turnHistogram[Math.min(turns, HISTOGRAM_SIZE - 1)]++;
+    }
+
+    SimulationResult merge(SimulationResult other) {
+        games += other.games;
+        wins += other.wins;
+        eatenByWumpus += other.eatenByWumpus;
+        fellInPit += other.fellInPit;
+        outOfArrows += other.outOfArrows;
+        unfinished += other.unfinished;
+        totalTurns += other.totalTurns;
+        minTurns = Math.min(minTurns, other.minTurns);
+        maxTurns = Math.max(maxTurns, other.maxTurns);
+        for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+            turnHistogram[i] += other.turnHistogram[i];
+        }
+        return this;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public long getLosses() {
+        return eatenByWumpus + fellInPit + outOfArrows;
+    }
+
+    public long getEatenByWumpus() {
+        return eatenByWumpus;
+    }
+
+    public long getFellInPit() {
+        return fellInPit;
+    }
+
+    public long getOutOfArrows() {
+        return outOfArrows;
+    }
+
+    public long getUnfinished() {
+        return unfinished;
+    }
+
+    public long getTotalTurns() {
+        return totalTurns;
+    }
+
+    public int getMinTurns() {
+        return games == 0 ? 0 : minTurns;
+    }
+
+    public int getMaxTurns() {
+        return maxTurns;
+    }
+
+    public double getMeanTurns() {
+        return games == 0 ? 0 : (double) totalTurns / games;
+    }
+
+    public long[] getTurnHistogram() {
+        return turnHistogram.clone();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("games=%d wins=%d wumpus=%d pit=%d arrows=%d unfinished=%d turns(min/mean/max)=%d/%.2f/%d",
+                games, wins, eatenByWumpus, fellInPit, outOfArrows, unfinished,
+                getMinTurns(), getMeanTurns(), maxTurns);
+    }
+}
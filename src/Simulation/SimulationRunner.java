@@ -0,0 +1,143 @@
+package Simulation;
+
+import Model.GameModel;
+import Model.GameOutcome;
+import Model.GameRandom;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Plays complete games headlessly across all cores.
+ *
+ * Every game is identified by a seed; the seed range is split across a
+ * fork-join pool and each leaf reuses a single GameModel, with listener
+ * dispatch off, for all of its games. Running the same seed range with the
+ * same config and policy gives the same result.
+ */
+public class SimulationRunner {
+    // Seeds per leaf task, large enough to amortize task overhead
+    private static final long LEAF_SIZE = 4096;
+
+    private final ForkJoinPool pool;
+
+    public SimulationRunner() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public SimulationRunner(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Plays one game per seed in [fromSeed, toSeed).
+     *
+     * @param config Board settings
+     * @param policyFactory Creates one policy per worker task
+     * @param fromSeed First seed, inclusive
+     * @param toSeed Last seed, exclusive
+     * @return The aggregated result
+     */
+    public SimulationResult run(SimulationConfig config, Supplier<? extends PlayerPolicy> policyFactory,
+                                long fromSeed, long toSeed) {
+        return pool.invoke(new BatchTask(config, policyFactory, fromSeed, toSeed));
+    }
+
+    /**
+     * Plays a single game to completion or until the turn limit.
+     *
+     * @return The number of actions taken
+     */
+    static int playGame(GameModel model, Random random, PlayerPolicy policy,
+                        SimulationConfig config, long seed) {
+        random.setSeed(seed);
+        policy.reset(seed);
+        model.initialize(config.getNumCaves(), config.getNumPits(), config.getNumBats(), config.getNumArrows());
+
+        int turns = 0;
+        while (!model.isGameOver() && turns < config.getMaxTurns()) {
+            int action = policy.chooseAction(model);
+            boolean accepted = PlayerPolicy.isShot(action)
+                    ? model.shootArrow(PlayerPolicy.targetOf(action))
+                    : model.movePlayer(PlayerPolicy.targetOf(action));
+            if (!accepted) {
+                // An illegal action would otherwise loop forever
+                break;
+            }
+            turns++;
+        }
+        return turns;
+    }
+
+    private static class BatchTask extends RecursiveTask<SimulationResult> {
+        private final SimulationConfig config;
+        private final Supplier<? extends PlayerPolicy> policyFactory;
+        private final long fromSeed;
+        private final long toSeed;
+
+        BatchTask(SimulationConfig config, Supplier<? extends PlayerPolicy> policyFactory,
+                  long fromSeed, long toSeed) {
+            this.config = config;
+            this.policyFactory = policyFactory;
+            this.fromSeed = fromSeed;
+            this.toSeed = toSeed;
+        }
+
+        @Override
+        protected SimulationResult compute() {
+            if (toSeed - fromSeed <= LEAF_SIZE) {
+                return playRange();
+            }
+
+            long middle = fromSeed + (toSeed - fromSeed) / 2;
+            BatchTask left = new BatchTask(config, policyFactory, fromSeed, middle);
+            BatchTask right = new BatchTask(config, policyFactory, middle, toSeed);
+            left.fork();
+            SimulationResult rightResult = right.compute();
+            return left.join().merge(rightResult);
+        }
+
+        private SimulationResult playRange() {
+            SimulationResult result = new SimulationResult();
+            GameRandom random = new GameRandom();
+            GameModel model = new GameModel(random);
+            model.setListenersEnabled(false);
+            model.setHistoryEnabled(false);
+            model.setActionLogEnabled(false);
+            PlayerPolicy policy = policyFactory.get();
+
+            for (long seed = fromSeed; seed < toSeed; seed++) {
+                int turns = playGame(model, random, policy, config, seed);
+                GameOutcome outcome = model.getOutcome();
+                result.record(outcome, turns);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Command line entry point:
+     * caves pits bats arrows games [firstSeed]
+     */
+    public static void main(String[] args) {
+        if (args.length < 5) {
+            System.err.println("Usage: SimulationRunner <caves> <pits> <bats> <arrows> <games> [firstSeed]");
+            System.exit(1);
+        }
+
+        SimulationConfig config = new SimulationConfig(
+                Integer.parseInt(args[0]), Integer.parseInt(args[1]),
+                Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+        long games = Long.parseLong(args[4]);
+        long firstSeed = args.length > 5 ? Long.parseLong(args[5]) : 0;
+
+        long start = System.nanoTime();
+        SimulationResult result = new SimulationRunner().run(config, RandomWalkPolicy::new, firstSeed, firstSeed + games);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println(result);
+        System.out.printf("%.0f games/s%n", result.getGames() / seconds);
+    }
+}
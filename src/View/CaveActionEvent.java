@@ -0,0 +1,21 @@
+package View;
+
+import Model.ICave;
+
+import java.awt.event.ActionEvent;
+
+/**
+ * Action fired when the user clicks a cave, in either MazeView render mode.
+ */
+public class CaveActionEvent extends ActionEvent {
+    private final ICave cave;
+
+    public CaveActionEvent(Object source, ICave cave, String command) {
+        super(source, ActionEvent.ACTION_PERFORMED, command);
+        this.cave = cave;
+    }
+
+    public ICave getCave() {
+        return cave;
+    }
+}
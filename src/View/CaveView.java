@@ -1,21 +1,26 @@
 package View;
 
+import Metrics.Histogram;
+import Metrics.JfrEvents;
+import Metrics.Metrics;
 import Model.ICave;
 
 import javax.swing.*;
 import java.awt.*;
-import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 
 public class CaveView extends JPanel {
+    private static final Histogram PAINT_TIME = Metrics.histogram("paint.cave.nanos");
+
     private ICave cave;
     private boolean isPlayerHere;
     private boolean isRevealed;
     private int size = 50; // Smaller size to match the first image
     private ActionListener moveListener;
     private ActionListener shootListener;
+    private ActionListener travelListener;
 
     public CaveView(ICave cave) {
         this.cave = cave;
@@ -28,10 +33,12 @@ public class CaveView extends JPanel {
         addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                if (SwingUtilities.isLeftMouseButton(e) && moveListener != null) {
-                    moveListener.actionPerformed(new ActionEvent(CaveView.this, ActionEvent.ACTION_PERFORMED, "move"));
+                if (SwingUtilities.isLeftMouseButton(e) && e.isShiftDown() && travelListener != null) {
+                    travelListener.actionPerformed(new CaveActionEvent(CaveView.this, cave, "travel"));
+                } else if (SwingUtilities.isLeftMouseButton(e) && moveListener != null) {
+                    moveListener.actionPerformed(new CaveActionEvent(CaveView.this, cave, "move"));
                 } else if (SwingUtilities.isRightMouseButton(e) && shootListener != null) {
-                    shootListener.actionPerformed(new ActionEvent(CaveView.this, ActionEvent.ACTION_PERFORMED, "shoot"));
+                    shootListener.actionPerformed(new CaveActionEvent(CaveView.this, cave, "shoot"));
                 }
             }
         });
@@ -45,6 +52,10 @@ public class CaveView extends JPanel {
         this.shootListener = listener;
     }
 
+    public void setTravelListener(ActionListener listener) {
+        this.travelListener = listener;
+    }
+
     public void setPlayerHere(boolean isPlayerHere) {
         this.isPlayerHere = isPlayerHere;
         repaint();
@@ -52,6 +63,19 @@ public class CaveView extends JPanel {
 
     @Override
     protected void paintComponent(Graphics g) {
+        long start = System.nanoTime();
+        JfrEvents.Paint event = new JfrEvents.Paint();
+        event.begin();
+
+        paintCave(g);
+
+        event.component = "CaveView";
+        event.caves = 1;
+        event.commit();
+        PAINT_TIME.recordSince(start);
+    }
+
+    private void paintCave(Graphics g) {
         super.paintComponent(g);
         Graphics2D g2d = (Graphics2D) g;
 
@@ -119,6 +143,19 @@ public class CaveView extends JPanel {
         repaint();
     }
 
+    /**
+     * Updates both flags without scheduling a repaint, so MazeView can change
+     * many caves and repaint once.
+     *
+     * @return true if anything changed
+     */
+    boolean updateState(boolean isPlayerHere, boolean isRevealed) {
+        boolean changed = this.isPlayerHere != isPlayerHere || this.isRevealed != isRevealed;
+        this.isPlayerHere = isPlayerHere;
+        this.isRevealed = isRevealed;
+        return changed;
+    }
+
     /**
      * Reset this cave view to its initial state
      */
@@ -8,6 +8,7 @@ public class GameSetupDialog extends JDialog {
     private JSpinner pitSpinner;
     private JSpinner batSpinner;
     private JSpinner arrowSpinner;
+    private JCheckBox movingHazardsBox;
     private JButton okButton;
     private JButton cancelButton;
     private boolean confirmed = false;
@@ -21,12 +22,13 @@ public class GameSetupDialog extends JDialog {
         pitSpinner = new JSpinner(new SpinnerNumberModel(2, 1, 10, 1));
         batSpinner = new JSpinner(new SpinnerNumberModel(2, 1, 10, 1));
         arrowSpinner = new JSpinner(new SpinnerNumberModel(3, 1, 10, 1));
+        movingHazardsBox = new JCheckBox();
 
         okButton = new JButton("OK");
         cancelButton = new JButton("Cancel");
 
         // Set up layout
-        JPanel panel = new JPanel(new GridLayout(5, 2, 10, 10));
+        JPanel panel = new JPanel(new GridLayout(6, 2, 10, 10));
         panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
         panel.add(new JLabel("Number of Caves:"));
@@ -37,6 +39,8 @@ public class GameSetupDialog extends JDialog {
         panel.add(batSpinner);
         panel.add(new JLabel("Number of Arrows:"));
         panel.add(arrowSpinner);
+        panel.add(new JLabel("Moving Hazards:"));
+        panel.add(movingHazardsBox);
         panel.add(okButton);
         panel.add(cancelButton);
 
@@ -85,4 +89,8 @@ public class GameSetupDialog extends JDialog {
     public int getNumArrows() {
         return (Integer) arrowSpinner.getValue();
     }
+
+    public boolean isMovingHazards() {
+        return movingHazardsBox.isSelected();
+    }
 }
\ No newline at end of file
@@ -1,22 +1,27 @@
 package View;
 
-import Model.GameModelListener;
+import Model.GameEvent;
+import Model.GameEventListener;
+import Model.GameOutcome;
 import Model.IGameModel;
+import Model.Senses;
 
 import javax.swing.*;
 import java.awt.*;
 
-public class GameView extends JFrame implements GameModelListener {
+public class GameView extends JFrame implements GameEventListener {
     private IGameModel model;
     private MazeView mazeView;
     private StatusView statusView;
     private JButton newGameButton;
     private JButton setupButton;
+    private JButton saveButton;
+    private JButton loadButton;
     private JLabel arrowsLabel;
 
     public GameView(IGameModel model) {
         this.model = model;
-        model.addListener(this);
+        model.addEventListener(this);
 
         // Set up the frame
         setTitle("Hunt the Wumpus");
@@ -35,8 +40,12 @@ public class GameView extends JFrame implements GameModelListener {
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
         newGameButton = new JButton("New Game");
         setupButton = new JButton("Setup");
+        saveButton = new JButton("Save");
+        loadButton = new JButton("Load");
         buttonPanel.add(newGameButton);
         buttonPanel.add(setupButton);
+        buttonPanel.add(saveButton);
+        buttonPanel.add(loadButton);
 
         topPanel.add(titleLabel, BorderLayout.NORTH);
         topPanel.add(buttonPanel, BorderLayout.CENTER);
@@ -60,54 +69,131 @@ public class GameView extends JFrame implements GameModelListener {
         add(centerPanel, BorderLayout.CENTER);
         add(statusView, BorderLayout.SOUTH);
 
+        // Show the game the model is already playing
+        refreshAll();
+
         // Set size that matches the proportions in the first image
         setSize(700, 650);
         setLocationRelativeTo(null);
         setVisible(true);
     }
 
+    // Each event only touches the parts of the view it changes
     @Override
-    public void gameStateChanged() {
-        // Update maze view
-        mazeView.updatePlayerLocation(model.getPlayer().getCurrentCave());
+    public void gameReset(GameEvent.GameReset event) {
+        refreshAll();
+    }
+
+    @Override
+    public void playerMoved(GameEvent.PlayerMoved event) {
+        mazeView.updatePlayerLocation(model.getMaze().getCaveById(event.getToCaveId()));
+        updateStatus(event);
+    }
+
+    @Override
+    public void batTransport(GameEvent.BatTransport event) {
+        mazeView.updatePlayerLocation(model.getMaze().getCaveById(event.getToCaveId()));
+        updateStatus(event);
+    }
 
+    @Override
+    public void arrowShot(GameEvent.ArrowShot event) {
         // Update arrows count in the corner
-        arrowsLabel.setText("arrows " + model.getPlayer().getArrows());
+        arrowsLabel.setText("arrows " + event.getArrows());
+        statusView.updateArrows(event.getArrows());
+        updateStatus(event);
+    }
 
-        // Update status view
-        statusView.updateArrows(model.getPlayer().getArrows());
-        statusView.updateSensory(
-                model.canSmellWumpus(),
-                model.canFeelDraft(),
-                model.canHearBats()
-        );
-        statusView.updateGameStatus(model.getGameStatus());
-        statusView.updateWinnableStatus(model.isWinnable());
+    @Override
+    public void hazardChanged(GameEvent.HazardChanged event) {
+        if (event.getCaveId() < 0) {
+            mazeView.repaint();
+        } else {
+            mazeView.updateCave(event.getCaveId());
+        }
+    }
+
+    @Override
+    public void gameOver(GameEvent.GameOver event) {
+        updateStatus(event);
 
         // If game over, reveal all caves
-        if (model.isGameOver()) {
-            mazeView.revealAllCaves();
+        mazeView.revealAllCaves();
+
+        // Display game result
+        String message;
+        if (event.getCause() == GameOutcome.WON) {
+            message = "Congratulations! You killed the Wumpus!";
+        } else {
+            message = "Game Over! You lost.";
+        }
 
-            // Display game result
-            String message;
-            if (model.getGameStatus().equals("won")) {
-                message = "Congratulations! You killed the Wumpus!";
-            } else {
-                message = "Game Over! You lost.";
-            }
+        JOptionPane.showMessageDialog(this, message);
+    }
 
-            JOptionPane.showMessageDialog(this, message);
+    private void updateStatus(GameEvent event) {
+        Senses senses = event.getSenses();
+        statusView.updateSensory(senses.smellsWumpus(), senses.feelsDraft(), senses.hearsBats());
+        statusView.updateGameStatus(statusOf(event.getOutcome()));
+        if (event.isWinnabilityKnown()) {
+            statusView.updateWinnableStatus(event.isWinnable());
+        } else {
+            statusView.updateWinnablePending();
         }
     }
 
     /**
-     * Fully resets the view when a new game is started.
-     * This creates a completely new maze view.
+     * Shows winnability once the model can answer it without a traversal,
+     * typically after a background analysis was applied.
      */
+    public void refreshWinnableStatus() {
+        if (model.isWinnabilityKnown()) {
+            statusView.updateWinnableStatus(model.isWinnable());
+        } else {
+            statusView.updateWinnablePending();
+        }
+    }
+
+    /**
+     * Shows the chance to win given what the player has observed, or unknown
+     * for NaN.
+     */
+    public void showWinChance(double probability) {
+        statusView.updateWinChance(probability);
+    }
+
+    /**
+     * Shows a short notice in the status panel until the next game starts.
+     */
+    public void showMessage(String message) {
+        statusView.showMessage(message);
+    }
+
+    private static String statusOf(GameOutcome outcome) {
+        if (outcome == GameOutcome.ONGOING) {
+            return "ongoing";
+        }
+        return outcome == GameOutcome.WON ? "won" : "lost";
+    }
+
     /**
      * Fully resets the view when a new game is started.
      */
     public void resetGame() {
+        refreshAll();
+        statusView.showMessage(null);
+
+        // Repaint everything
+        repaint();
+    }
+
+    // Re-reads the whole model; used for new games and time travel
+    private void refreshAll() {
+        // A new game brings a new maze, so rebuild the cave views for it
+        if (mazeView.getMaze() != model.getMaze()) {
+            mazeView.setMaze(model.getMaze());
+        }
+
         // Reset the maze view (all cave views will be reset)
         mazeView.reset();
 
@@ -119,16 +205,15 @@ public class GameView extends JFrame implements GameModelListener {
 
         // Update the status view
         statusView.updateArrows(model.getPlayer().getArrows());
-        statusView.updateSensory(
-                model.canSmellWumpus(),
-                model.canFeelDraft(),
-                model.canHearBats()
-        );
-        statusView.updateGameStatus("ongoing");
-        statusView.updateWinnableStatus(model.isWinnable());
+        Senses senses = model.senses();
+        statusView.updateSensory(senses.smellsWumpus(), senses.feelsDraft(), senses.hearsBats());
+        statusView.updateGameStatus(model.getGameStatus());
+        refreshWinnableStatus();
 
-        // Repaint everything
-        repaint();
+        // A restored snapshot may be a finished game
+        if (model.isGameOver()) {
+            mazeView.revealAllCaves();
+        }
     }
 
     private void setupCaveListeners() {
@@ -136,16 +221,14 @@ public class GameView extends JFrame implements GameModelListener {
         mazeView.setMoveListeners(e -> {
             if (model.isGameOver()) return;
 
-            CaveView source = (CaveView) e.getSource();
-            model.movePlayer(source.getCave());
+            model.movePlayer(((CaveActionEvent) e).getCave());
         });
 
         // Set shoot listeners (right-click)
         mazeView.setShootListeners(e -> {
             if (model.isGameOver()) return;
 
-            CaveView source = (CaveView) e.getSource();
-            model.shootArrow(source.getCave());
+            model.shootArrow(((CaveActionEvent) e).getCave());
         });
     }
 
@@ -160,4 +243,12 @@ public class GameView extends JFrame implements GameModelListener {
     public JButton getSetupButton() {
         return setupButton;
     }
+
+    public JButton getSaveButton() {
+        return saveButton;
+    }
+
+    public JButton getLoadButton() {
+        return loadButton;
+    }
 }
\ No newline at end of file
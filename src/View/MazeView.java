@@ -1,48 +1,217 @@
 package View;
 
+import Metrics.Histogram;
+import Metrics.JfrEvents;
+import Metrics.Metrics;
 import Model.ICave;
 import Model.IMaze;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionListener;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.List;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
 
 public class MazeView extends JPanel {
-    private Map<ICave, CaveView> caveViewMap;
-    private Map<ICave, Point> cavePositions;
+    /**
+     * COMPONENTS gives every cave its own CaveView panel. CANVAS paints all
+     * caves straight onto this panel and hit-tests clicks through a spatial
+     * grid, which scales to very large mazes. AUTO picks by maze size.
+     */
+    public enum RenderMode { AUTO, COMPONENTS, CANVAS }
 
-    public MazeView(IMaze maze) {
-        caveViewMap = new HashMap<>();
-        cavePositions = new HashMap<>();
+    // AUTO switches to the canvas above this many caves
+    private static final int CANVAS_THRESHOLD = 500;
+
+    // Longest edge, in maze coordinates, found through the spatial grid;
+    // longer ones are kept in a list and checked one by one
+    private static final int SHORT_EDGE = 256;
+
+    private static final Histogram PAINT_TIME = Metrics.histogram("paint.maze.nanos");
+
+    private IMaze maze;
+    private CaveView[] caveViews;
+    private ActionListener moveListener;
+    private ActionListener shootListener;
+    private ActionListener travelListener;
+
+    private RenderMode renderMode = RenderMode.AUTO;
+    private boolean canvasMode;
+    private SpatialGrid grid;
+
+    // Canvas mode state; component mode keeps this in each CaveView
+    private int playerCaveId = -1;
+    private boolean revealed;
+
+    // Cave centers in maze coordinates, indexed by cave id
+    private int[] caveX;
+    private int[] caveY;
+
+    // View transform: screen = maze * zoom + pan
+    private double zoom = 1.0;
+    private double panX = 0;
+    private double panY = 0;
+
+    // Edges are drawn once into this image and reused until the maze, the
+    // panel size or the zoom changes; panning shifts it by whole pixels
+    private BufferedImage edgeLayer;
+    private BufferedImage edgeScratch;
+    private boolean edgeLayerDirty = true;
+    private double edgeLayerPanX;
+    private double edgeLayerPanY;
 
+    // Edges longer than SHORT_EDGE as pairs of cave ids
+    private int[] longEdges;
+
+    public MazeView(IMaze maze) {
         setLayout(null); // Use absolute positioning
         setPreferredSize(new Dimension(600, 600));
 
-        // Create views for each cave
-        initializeCaveViews(maze);
+        // Re-cull caves and rebuild the edge layer when the panel is resized
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                viewTransformChanged();
+            }
+        });
+
+        // Wheel zooms around the cursor, dragging the background pans
+        MouseAdapter panZoom = new MouseAdapter() {
+            private Point dragStart;
+
+            @Override
+            public void mousePressed(MouseEvent e) {
+                dragStart = e.getPoint();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (dragStart != null) {
+                    panBy(e.getX() - dragStart.x, e.getY() - dragStart.y);
+                    dragStart = e.getPoint();
+                }
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                dragStart = null;
+            }
+
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (canvasMode) {
+                    handleCanvasClick(e);
+                }
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                zoomAt(e.getX(), e.getY(), Math.pow(1.1, -e.getPreciseWheelRotation()));
+            }
+        };
+        addMouseListener(panZoom);
+        addMouseMotionListener(panZoom);
+        addMouseWheelListener(panZoom);
+
+        setMaze(maze);
+    }
+
+    /**
+     * Shows a different maze, replacing all cave views.
+     */
+    public void setMaze(IMaze maze) {
+        this.maze = maze;
+        removeAll();
+        playerCaveId = -1;
+        revealed = false;
+
+        canvasMode = renderMode == RenderMode.CANVAS
+                || (renderMode == RenderMode.AUTO && maze.getCaveCount() > CANVAS_THRESHOLD);
+
+        // Create views for each cave, unless the canvas paints them
+        if (canvasMode) {
+            caveViews = new CaveView[0];
+        } else {
+            initializeCaveViews(maze);
+        }
 
         // Position caves in a pentagon pattern
         positionCavesInPentagon(maze);
+        grid = new SpatialGrid(caveX, caveY, 64);
+        collectLongEdges();
+
+        layoutCaveViews();
+        invalidateEdgeLayer();
+        revalidate();
+    }
+
+    public IMaze getMaze() {
+        return maze;
+    }
+
+    public void setRenderMode(RenderMode renderMode) {
+        this.renderMode = renderMode;
+        setMaze(maze);
+    }
+
+    public boolean isCanvasMode() {
+        return canvasMode;
     }
 
     private void initializeCaveViews(IMaze maze) {
+        caveViews = new CaveView[maze.getCaveCount()];
         for (ICave cave : maze.getAllCaves()) {
             CaveView caveView = new CaveView(cave);
-            caveViewMap.put(cave, caveView);
+            caveView.setMoveListener(moveListener);
+            caveView.setShootListener(shootListener);
+            caveView.setTravelListener(travelListener);
+            caveViews[cave.getId()] = caveView;
             add(caveView);
         }
     }
 
+    private void collectLongEdges() {
+        int count = 0;
+        int[] edges = new int[16];
+        for (int id = 0; id < caveX.length; id++) {
+            for (int i = 0; i < maze.getNeighborCount(id); i++) {
+                int neighbor = maze.getNeighbor(id, i);
+                if (neighbor > id && isLongEdge(id, neighbor)) {
+                    if (count + 2 > edges.length) {
+                        edges = Arrays.copyOf(edges, edges.length * 2);
+                    }
+                    edges[count++] = id;
+                    edges[count++] = neighbor;
+                }
+            }
+        }
+        longEdges = Arrays.copyOf(edges, count);
+    }
+
+    private boolean isLongEdge(int id, int neighbor) {
+        return Math.abs(caveX[id] - caveX[neighbor]) > SHORT_EDGE
+                || Math.abs(caveY[id] - caveY[neighbor]) > SHORT_EDGE;
+    }
+
     private void positionCavesInPentagon(IMaze maze) {
-        List<ICave> caves = maze.getAllCaves();
+        int numCaves = maze.getCaveCount();
+        caveX = new int[numCaves];
+        caveY = new int[numCaves];
         int centerX = 300;
         int centerY = 300;
 
-        // If we don't have enough caves, fallback to circle layout
-        if (caves.size() < 20) {
+        // Only the 20-cave maze has the pentagon structure, others use a
+        // circle, or a grid once a circle gets too crowded
+        if (numCaves > 50) {
+            positionCavesInGrid(maze);
+            return;
+        }
+        if (numCaves != 20) {
             positionCavesInCircle(maze);
             return;
         }
@@ -55,151 +224,451 @@ public class MazeView extends JPanel {
         // Position outer pentagon (5 caves)
         for (int i = 0; i < 5; i++) {
             double angle = 2 * Math.PI * i / 5 - Math.PI / 2; // Start from top
-            int x = (int) (centerX + outerRadius * Math.cos(angle));
-            int y = (int) (centerY + outerRadius * Math.sin(angle));
-
-            CaveView caveView = caveViewMap.get(caves.get(i));
-            x -= caveView.getPreferredSize().width / 2;
-            y -= caveView.getPreferredSize().height / 2;
-
-            caveView.setBounds(x, y, caveView.getPreferredSize().width, caveView.getPreferredSize().height);
-            cavePositions.put(caves.get(i), new Point(x, y));
+            caveX[i] = (int) (centerX + outerRadius * Math.cos(angle));
+            caveY[i] = (int) (centerY + outerRadius * Math.sin(angle));
         }
 
         // Position middle circle (10 caves) - caves 5-14
         for (int i = 0; i < 10; i++) {
             double angle = 2 * Math.PI * i / 10 - Math.PI / 2; // Start from top
-            int x = (int) (centerX + middleRadius * Math.cos(angle));
-            int y = (int) (centerY + middleRadius * Math.sin(angle));
-
-            CaveView caveView = caveViewMap.get(caves.get(i + 5));
-            x -= caveView.getPreferredSize().width / 2;
-            y -= caveView.getPreferredSize().height / 2;
-
-            caveView.setBounds(x, y, caveView.getPreferredSize().width, caveView.getPreferredSize().height);
-            cavePositions.put(caves.get(i + 5), new Point(x, y));
+            caveX[i + 5] = (int) (centerX + middleRadius * Math.cos(angle));
+            caveY[i + 5] = (int) (centerY + middleRadius * Math.sin(angle));
         }
 
         // Position inner pentagon (5 caves) - caves 15-19
         for (int i = 0; i < 5; i++) {
             double angle = 2 * Math.PI * i / 5 - Math.PI / 2; // Start from top
-            int x = (int) (centerX + innerRadius * Math.cos(angle));
-            int y = (int) (centerY + innerRadius * Math.sin(angle));
+            caveX[i + 15] = (int) (centerX + innerRadius * Math.cos(angle));
+            caveY[i + 15] = (int) (centerY + innerRadius * Math.sin(angle));
+        }
+    }
 
-            CaveView caveView = caveViewMap.get(caves.get(i + 15));
-            x -= caveView.getPreferredSize().width / 2;
-            y -= caveView.getPreferredSize().height / 2;
+    private void positionCavesInCircle(IMaze maze) {
+        // Fallback layout for any maze other than the 20-cave pentagon
+        int numCaves = maze.getCaveCount();
+        int centerX = 300;
+        int centerY = 300;
+        int radius = 250;
 
-            caveView.setBounds(x, y, caveView.getPreferredSize().width, caveView.getPreferredSize().height);
-            cavePositions.put(caves.get(i + 15), new Point(x, y));
+        for (int i = 0; i < numCaves; i++) {
+            double angle = 2 * Math.PI * i / numCaves;
+            caveX[i] = (int) (centerX + radius * Math.cos(angle));
+            caveY[i] = (int) (centerY + radius * Math.sin(angle));
         }
+    }
 
-        // If there are more caves, position them in the center
-        if (caves.size() > 20) {
-            for (int i = 20; i < caves.size(); i++) {
-                CaveView caveView = caveViewMap.get(caves.get(i));
-                int x = centerX - caveView.getPreferredSize().width / 2;
-                int y = centerY - caveView.getPreferredSize().height / 2;
+    private void positionCavesInGrid(IMaze maze) {
+        // Rows alternate direction so consecutive caves stay next to each other
+        int numCaves = maze.getCaveCount();
+        int columns = (int) Math.ceil(Math.sqrt(numCaves));
+        int spacing = 60;
+
+        for (int i = 0; i < numCaves; i++) {
+            int row = i / columns;
+            int column = i % columns;
+            if (row % 2 == 1) {
+                column = columns - 1 - column;
+            }
+            caveX[i] = spacing / 2 + column * spacing;
+            caveY[i] = spacing / 2 + row * spacing;
+        }
+    }
 
-                caveView.setBounds(x, y, caveView.getPreferredSize().width, caveView.getPreferredSize().height);
-                cavePositions.put(caves.get(i), new Point(x, y));
+    /**
+     * Places every cave view at its transformed position and hides the ones
+     * outside the panel, so Swing only paints visible caves.
+     */
+    private void layoutCaveViews() {
+        int width = getWidth() > 0 ? getWidth() : getPreferredSize().width;
+        int height = getHeight() > 0 ? getHeight() : getPreferredSize().height;
+
+        for (int id = 0; id < caveViews.length; id++) {
+            CaveView caveView = caveViews[id];
+            Dimension size = caveView.getPreferredSize();
+            int x = screenX(id) - size.width / 2;
+            int y = screenY(id) - size.height / 2;
+
+            boolean visible = x + size.width > 0 && y + size.height > 0 && x < width && y < height;
+            caveView.setVisible(visible);
+            if (visible) {
+                caveView.setBounds(x, y, size.width, size.height);
             }
         }
     }
 
-    private void positionCavesInCircle(IMaze maze) {
-        // Fallback method for fewer caves
-        List<ICave> caves = maze.getAllCaves();
-        int centerX = 300;
-        int centerY = 300;
-        int radius = 250;
+    private int screenX(int caveId) {
+        return (int) Math.round(caveX[caveId] * zoom + panX);
+    }
+
+    private int screenY(int caveId) {
+        return (int) Math.round(caveY[caveId] * zoom + panY);
+    }
+
+    public void panBy(int dx, int dy) {
+        panX += dx;
+        panY += dy;
+        // The edge layer is shifted on the next paint instead of rebuilt
+        layoutCaveViews();
+        repaint();
+    }
+
+    public void zoomAt(int x, int y, double factor) {
+        double newZoom = Math.max(0.01, Math.min(20.0, zoom * factor));
+        factor = newZoom / zoom;
+
+        // Keep the point under the cursor fixed
+        panX = x - (x - panX) * factor;
+        panY = y - (y - panY) * factor;
+        zoom = newZoom;
+        viewTransformChanged();
+    }
 
-        for (int i = 0; i < caves.size(); i++) {
-            ICave cave = caves.get(i);
-            CaveView caveView = caveViewMap.get(cave);
+    private void viewTransformChanged() {
+        layoutCaveViews();
+        invalidateEdgeLayer();
+    }
 
-            double angle = 2 * Math.PI * i / caves.size();
-            int x = (int) (centerX + radius * Math.cos(angle)) - caveView.getPreferredSize().width / 2;
-            int y = (int) (centerY + radius * Math.sin(angle)) - caveView.getPreferredSize().height / 2;
+    private void invalidateEdgeLayer() {
+        edgeLayerDirty = true;
+        repaint();
+    }
 
-            caveView.setBounds(x, y, caveView.getPreferredSize().width, caveView.getPreferredSize().height);
-            cavePositions.put(cave, new Point(x, y));
+    private void rebuildEdgeLayer(int width, int height) {
+        if (edgeLayer == null || edgeLayer.getWidth() != width || edgeLayer.getHeight() != height) {
+            edgeLayer = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
         }
+
+        Graphics2D g2d = edgeLayer.createGraphics();
+        redrawEdges(g2d, new Rectangle(0, 0, width, height));
+        g2d.dispose();
+
+        edgeLayerDirty = false;
+        edgeLayerPanX = panX;
+        edgeLayerPanY = panY;
+    }
+
+    /**
+     * After a pan, moves the edge layer by the same whole number of pixels
+     * and only draws the strips that came into view. Anything else, such as
+     * a pan after a zoom left fractional offsets, rebuilds the layer.
+     */
+    private void shiftEdgeLayer(int width, int height) {
+        double dx = panX - edgeLayerPanX;
+        double dy = panY - edgeLayerPanY;
+        if (dx != Math.rint(dx) || dy != Math.rint(dy) || Math.abs(dx) >= width || Math.abs(dy) >= height) {
+            rebuildEdgeLayer(width, height);
+            return;
+        }
+        int shiftX = (int) dx;
+        int shiftY = (int) dy;
+
+        if (edgeScratch == null || edgeScratch.getWidth() != width || edgeScratch.getHeight() != height) {
+            edgeScratch = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        }
+        Graphics2D g2d = edgeScratch.createGraphics();
+        g2d.setComposite(AlphaComposite.Src);
+        g2d.drawImage(edgeLayer, shiftX, shiftY, null);
+
+        Rectangle columns = shiftX > 0
+                ? new Rectangle(0, 0, shiftX, height)
+                : new Rectangle(width + shiftX, 0, -shiftX, height);
+        Rectangle rows = shiftY > 0
+                ? new Rectangle(0, 0, width, shiftY)
+                : new Rectangle(0, height + shiftY, width, -shiftY);
+        if (!columns.isEmpty()) {
+            redrawEdges(g2d, columns);
+        }
+        if (!rows.isEmpty()) {
+            redrawEdges(g2d, rows);
+        }
+        g2d.dispose();
+
+        BufferedImage swap = edgeLayer;
+        edgeLayer = edgeScratch;
+        edgeScratch = swap;
+        edgeLayerPanX = panX;
+        edgeLayerPanY = panY;
+    }
+
+    /**
+     * Clears an area of the edge layer and draws every edge crossing it
+     * exactly once. Short edges come from the caves the grid finds around
+     * the area, long ones from their list, so the cost follows the area
+     * rather than the maze size.
+     */
+    private void redrawEdges(Graphics2D g2d, Rectangle area) {
+        g2d.setClip(area);
+        g2d.setComposite(AlphaComposite.Clear);
+        g2d.fill(area);
+        g2d.setComposite(AlphaComposite.SrcOver);
+        g2d.setColor(Color.DARK_GRAY);
+
+        // A short edge crossing the area has both ends within SHORT_EDGE of it
+        grid.forEachInRect(
+                (int) Math.floor((area.x - panX) / zoom) - SHORT_EDGE,
+                (int) Math.floor((area.y - panY) / zoom) - SHORT_EDGE,
+                (int) Math.ceil((area.x + area.width - panX) / zoom) + SHORT_EDGE,
+                (int) Math.ceil((area.y + area.height - panY) / zoom) + SHORT_EDGE,
+                caveId -> {
+                    for (int i = 0; i < maze.getNeighborCount(caveId); i++) {
+                        int neighbor = maze.getNeighbor(caveId, i);
+                        if (neighbor > caveId && !isLongEdge(caveId, neighbor)) {
+                            drawEdge(g2d, caveId, neighbor, area);
+                        }
+                    }
+                });
+
+        for (int i = 0; i < longEdges.length; i += 2) {
+            drawEdge(g2d, longEdges[i], longEdges[i + 1], area);
+        }
+    }
+
+    // Skips edges whose bounding box misses the area
+    private void drawEdge(Graphics2D g2d, int id, int neighbor, Rectangle area) {
+        int x1 = screenX(id);
+        int y1 = screenY(id);
+        int x2 = screenX(neighbor);
+        int y2 = screenY(neighbor);
+        if (Math.max(x1, x2) < area.x || Math.max(y1, y2) < area.y
+                || Math.min(x1, x2) >= area.x + area.width || Math.min(y1, y2) >= area.y + area.height) {
+            return;
+        }
+        g2d.drawLine(x1, y1, x2, y2);
     }
 
     @Override
     protected void paintComponent(Graphics g) {
+        long start = System.nanoTime();
+        JfrEvents.Paint event = new JfrEvents.Paint();
+        event.begin();
+
+        paintMaze(g);
+
+        event.component = "MazeView";
+        event.caves = caveX.length;
+        event.commit();
+        PAINT_TIME.recordSince(start);
+    }
+
+    private void paintMaze(Graphics g) {
         super.paintComponent(g);
-        Graphics2D g2d = (Graphics2D) g;
-
-        // Draw connections between caves
-        for (Map.Entry<ICave, CaveView> entry : caveViewMap.entrySet()) {
-            ICave cave = entry.getKey();
-            CaveView caveView = entry.getValue();
-
-            Point p1 = new Point(
-                    caveView.getX() + caveView.getWidth() / 2,
-                    caveView.getY() + caveView.getHeight() / 2
-            );
-
-            // Draw lines to all neighbors
-            for (ICave neighbor : cave.getNeighbors()) {
-                CaveView neighborView = caveViewMap.get(neighbor);
-                if (neighborView != null) {
-                    Point p2 = new Point(
-                            neighborView.getX() + neighborView.getWidth() / 2,
-                            neighborView.getY() + neighborView.getHeight() / 2
-                    );
-
-                    g2d.setColor(Color.DARK_GRAY);
-                    g2d.drawLine(p1.x, p1.y, p2.x, p2.y);
-                }
-            }
+
+        int width = getWidth();
+        int height = getHeight();
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+
+        // Draw connections between caves from the cached layer
+        if (edgeLayerDirty || edgeLayer == null
+                || edgeLayer.getWidth() != width || edgeLayer.getHeight() != height) {
+            rebuildEdgeLayer(width, height);
+        } else if (panX != edgeLayerPanX || panY != edgeLayerPanY) {
+            shiftEdgeLayer(width, height);
+        }
+        g.drawImage(edgeLayer, 0, 0, null);
+
+        if (canvasMode) {
+            paintCaves((Graphics2D) g, width, height);
+        }
+    }
+
+    /**
+     * Canvas mode: paints the caves inside the clip, found through the grid,
+     * the same way CaveView would. Labels are skipped once caves get too small.
+     * Repainting a single cave therefore only visits the caves around it.
+     */
+    private void paintCaves(Graphics2D g2d, int width, int height) {
+        Rectangle clip = g2d.getClipBounds();
+        Rectangle area = clip == null
+                ? new Rectangle(0, 0, width, height)
+                : clip.intersection(new Rectangle(0, 0, width, height));
+        if (area.isEmpty()) {
+            return;
+        }
+
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        int radius = Math.max(1, (int) Math.round(20 * zoom));
+        int margin = (int) Math.ceil(radius / zoom);
+
+        // Screen to maze coordinates, widened by a cave radius so caves
+        // overlapping the clip edge are drawn too
+        grid.forEachInRect(
+                (int) Math.floor((area.x - panX) / zoom) - margin,
+                (int) Math.floor((area.y - panY) / zoom) - margin,
+                (int) Math.ceil((area.x + area.width - panX) / zoom) + margin,
+                (int) Math.ceil((area.y + area.height - panY) / zoom) + margin,
+                caveId -> paintCave(g2d, caveId, screenX(caveId), screenY(caveId), radius));
+    }
+
+    private void paintCave(Graphics2D g2d, int caveId, int x, int y, int radius) {
+        if (radius < 3) {
+            // Too small for detail
+            g2d.setColor(caveId == playerCaveId ? Color.BLACK : Color.YELLOW.darker());
+            g2d.fillRect(x - 1, y - 1, 2, 2);
+            return;
+        }
+
+        g2d.setColor(revealed && maze.hasBat(caveId) ? Color.MAGENTA : Color.YELLOW);
+        g2d.fillOval(x - radius, y - radius, 2 * radius, 2 * radius);
+        g2d.setColor(Color.BLACK);
+        g2d.drawOval(x - radius, y - radius, 2 * radius, 2 * radius);
+
+        int inner = radius * 3 / 4;
+        if (revealed && maze.hasWumpus(caveId)) {
+            g2d.setColor(Color.RED);
+            g2d.fillOval(x - inner, y - inner, 2 * inner, 2 * inner);
+            g2d.setColor(Color.BLACK);
+            g2d.drawOval(x - inner, y - inner, 2 * inner, 2 * inner);
+        } else if (revealed && maze.hasPit(caveId)) {
+            g2d.setColor(Color.BLACK);
+            g2d.fillOval(x - inner, y - inner, 2 * inner, 2 * inner);
+        }
+
+        if (caveId == playerCaveId) {
+            int half = radius / 2;
+            int[] xPoints = {x, x - half, x + half};
+            int[] yPoints = {y - half, y + half, y + half};
+            g2d.setColor(Color.YELLOW);
+            g2d.fillPolygon(xPoints, yPoints, 3);
+            g2d.setColor(Color.BLACK);
+            g2d.drawPolygon(xPoints, yPoints, 3);
+        }
+
+        if (radius >= 12) {
+            g2d.setColor(Color.BLACK);
+            String idStr = String.valueOf(caveId);
+            FontMetrics fm = g2d.getFontMetrics();
+            g2d.drawString(idStr, x - fm.stringWidth(idStr) / 2, y + fm.getAscent() / 2 - 2);
         }
     }
 
+    private void handleCanvasClick(MouseEvent e) {
+        int mazeX = (int) Math.round((e.getX() - panX) / zoom);
+        int mazeY = (int) Math.round((e.getY() - panY) / zoom);
+        int caveId = grid.nearest(mazeX, mazeY, (int) Math.ceil(Math.max(20, 4 / zoom)));
+        if (caveId < 0) {
+            return;
+        }
+
+        ICave cave = maze.getCaveById(caveId);
+        if (SwingUtilities.isLeftMouseButton(e) && e.isShiftDown() && travelListener != null) {
+            travelListener.actionPerformed(new CaveActionEvent(this, cave, "travel"));
+        } else if (SwingUtilities.isLeftMouseButton(e) && moveListener != null) {
+            moveListener.actionPerformed(new CaveActionEvent(this, cave, "move"));
+        } else if (SwingUtilities.isRightMouseButton(e) && shootListener != null) {
+            shootListener.actionPerformed(new CaveActionEvent(this, cave, "shoot"));
+        }
+    }
+
+    /**
+     * Moves the player marker. Only the previous and the new cave are
+     * repainted, so the cost does not depend on the maze size.
+     */
     public void updatePlayerLocation(ICave playerCave) {
+        int previous = playerCaveId;
+        int current = playerCave.getId();
+        if (previous == current) {
+            return;
+        }
+        playerCaveId = current;
+
+        if (canvasMode) {
+            repaintCave(previous);
+            repaintCave(current);
+            return;
+        }
+
         // Clear previous player location
-        for (CaveView caveView : caveViewMap.values()) {
-            caveView.setPlayerHere(false);
+        if (previous >= 0 && previous < caveViews.length) {
+            caveViews[previous].setPlayerHere(false);
         }
 
         // Set new player location
-        CaveView playerCaveView = caveViewMap.get(playerCave);
+        CaveView playerCaveView = getCaveViewFor(playerCave);
         if (playerCaveView != null) {
             playerCaveView.setPlayerHere(true);
         }
     }
 
+    private void repaintCave(int caveId) {
+        if (caveId < 0 || caveId >= caveX.length) {
+            return;
+        }
+        int radius = Math.max(1, (int) Math.round(20 * zoom)) + 2;
+        repaint(screenX(caveId) - radius, screenY(caveId) - radius, 2 * radius, 2 * radius);
+    }
+
+    /**
+     * Redraws one cave, e.g. after a hazard moved in or out of it.
+     */
+    public void updateCave(int caveId) {
+        if (canvasMode) {
+            repaintCave(caveId);
+        } else if (caveId >= 0 && caveId < caveViews.length) {
+            caveViews[caveId].repaint();
+        }
+    }
+
+    /**
+     * Reveals every cave with a single coalesced repaint, or none if every
+     * cave was already revealed.
+     */
     public void revealAllCaves() {
-        for (CaveView caveView : caveViewMap.values()) {
-            caveView.setRevealed(true);
+        boolean changed = !revealed;
+        revealed = true;
+        CaveView playerView = getCaveViewFor(playerCaveId);
+        for (CaveView caveView : caveViews) {
+            changed |= caveView.updateState(caveView == playerView, true);
+        }
+        if (changed) {
+            repaint();
         }
     }
 
     /**
-     * Reset all cave views
+     * Reset all cave views with a single coalesced repaint, or none if
+     * nothing was shown yet.
      */
     public void reset() {
-        for (CaveView caveView : caveViewMap.values()) {
-            caveView.reset();
+        boolean changed = revealed || playerCaveId >= 0;
+        playerCaveId = -1;
+        revealed = false;
+        for (CaveView caveView : caveViews) {
+            changed |= caveView.updateState(false, false);
+        }
+        if (changed) {
+            repaint();
         }
-        repaint();
     }
 
     public CaveView getCaveViewFor(ICave cave) {
-        return caveViewMap.get(cave);
+        return getCaveViewFor(cave.getId());
+    }
+
+    private CaveView getCaveViewFor(int caveId) {
+        return caveId >= 0 && caveId < caveViews.length ? caveViews[caveId] : null;
     }
 
     public void setMoveListeners(ActionListener listener) {
-        for (CaveView caveView : caveViewMap.values()) {
+        moveListener = listener;
+        for (CaveView caveView : caveViews) {
             caveView.setMoveListener(listener);
         }
     }
 
     public void setShootListeners(ActionListener listener) {
-        for (CaveView caveView : caveViewMap.values()) {
+        shootListener = listener;
+        for (CaveView caveView : caveViews) {
             caveView.setShootListener(listener);
         }
     }
-}
\ No newline at end of file
+
+    // Shift + left-click
+    public void setTravelListeners(ActionListener listener) {
+        travelListener = listener;
+        for (CaveView caveView : caveViews) {
+            caveView.setTravelListener(listener);
+        }
+    }
+}
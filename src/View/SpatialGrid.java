@@ -0,0 +1,118 @@
+package View;
+
+/**
+ * Uniform grid over cave centers for viewport queries and click hit-testing.
+ * Cells are stored in compressed form: the caves in cell c are
+ * cellCaves[cellStart[c] .. cellStart[c + 1] - 1].
+ */
+public class SpatialGrid {
+    private final int[] caveX;
+    private final int[] caveY;
+    private final int cellSize;
+    private final int minX;
+    private final int minY;
+    private final int columns;
+    private final int rows;
+    private final int[] cellStart;
+    private final int[] cellCaves;
+
+    public SpatialGrid(int[] caveX, int[] caveY, int cellSize) {
+        this.caveX = caveX;
+        this.caveY = caveY;
+        this.cellSize = cellSize;
+
+        int numCaves = caveX.length;
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < numCaves; i++) {
+            minX = Math.min(minX, caveX[i]);
+            minY = Math.min(minY, caveY[i]);
+            maxX = Math.max(maxX, caveX[i]);
+            maxY = Math.max(maxY, caveY[i]);
+        }
+        if (numCaves == 0) {
+            minX = minY = maxX = maxY = 0;
+        }
+        this.minX = minX;
+        this.minY = minY;
+        this.columns = (maxX - minX) / cellSize + 1;
+        this.rows = (maxY - minY) / cellSize + 1;
+
+        // Counting sort of caves into cells
+        cellStart = new int[columns * rows + 1];
+        for (int i = 0; i < numCaves; i++) {
+            cellStart[cellOf(caveX[i], caveY[i]) + 1]++;
+        }
+        for (int c = 0; c < columns * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        int[] fill = cellStart.clone();
+        cellCaves = new int[numCaves];
+        for (int i = 0; i < numCaves; i++) {
+            cellCaves[fill[cellOf(caveX[i], caveY[i])]++] = i;
+        }
+    }
+
+    private int cellOf(int x, int y) {
+        return ((y - minY) / cellSize) * columns + (x - minX) / cellSize;
+    }
+
+    public interface CaveVisitor {
+        void visit(int caveId);
+    }
+
+    /**
+     * Visits every cave whose center lies in the given rectangle, in maze coordinates.
+     */
+    public void forEachInRect(int x1, int y1, int x2, int y2, CaveVisitor visitor) {
+        int firstColumn = Math.max(0, Math.floorDiv(x1 - minX, cellSize));
+        int lastColumn = Math.min(columns - 1, Math.floorDiv(x2 - minX, cellSize));
+        int firstRow = Math.max(0, Math.floorDiv(y1 - minY, cellSize));
+        int lastRow = Math.min(rows - 1, Math.floorDiv(y2 - minY, cellSize));
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int cell = row * columns + column;
+                for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                    int caveId = cellCaves[i];
+                    if (caveX[caveId] >= x1 && caveX[caveId] <= x2
+                            && caveY[caveId] >= y1 && caveY[caveId] <= y2) {
+                        visitor.visit(caveId);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The cave whose center is closest to (x, y) within the radius, or -1
+     */
+    public int nearest(int x, int y, int radius) {
+        int best = -1;
+        long bestDistance = (long) radius * radius;
+
+        int firstColumn = Math.max(0, Math.floorDiv(x - radius - minX, cellSize));
+        int lastColumn = Math.min(columns - 1, Math.floorDiv(x + radius - minX, cellSize));
+        int firstRow = Math.max(0, Math.floorDiv(y - radius - minY, cellSize));
+        int lastRow = Math.min(rows - 1, Math.floorDiv(y + radius - minY, cellSize));
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int cell = row * columns + column;
+                for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                    int caveId = cellCaves[i];
+                    long dx = caveX[caveId] - x;
+                    long dy = caveY[caveId] - y;
+                    long distance = dx * dx + dy * dy;
+                    if (distance <= bestDistance) {
+                        bestDistance = distance;
+                        best = caveId;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+}
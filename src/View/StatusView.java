@@ -8,20 +8,26 @@ public class StatusView extends JPanel {
     private JLabel sensoryLabel;
     private JLabel gameStatusLabel;
     private JLabel winnableLabel;
+    private JLabel winChanceLabel;
+    private JLabel messageLabel;
 
     public StatusView() {
-        setLayout(new GridLayout(4, 1));
+        setLayout(new GridLayout(6, 1));
         setBorder(BorderFactory.createTitledBorder("Status"));
 
         arrowsLabel = new JLabel("Arrows: 3");
         sensoryLabel = new JLabel("You sense: nothing unusual.");
         gameStatusLabel = new JLabel("Game in progress...");
         winnableLabel = new JLabel("Maze is winnable: Yes");
+        winChanceLabel = new JLabel("Chance to win: unknown");
+        messageLabel = new JLabel(" ");
 
         add(arrowsLabel);
         add(sensoryLabel);
         add(gameStatusLabel);
         add(winnableLabel);
+        add(winChanceLabel);
+        add(messageLabel);
 
     }
 
@@ -71,4 +77,23 @@ public class StatusView extends JPanel {
     public void updateWinnableStatus(boolean isWinnable) {
         winnableLabel.setText("Maze is winnable: " + (isWinnable ? "Yes" : "No"));
     }
+
+    // Shown while winnability is analysed in the background
+    public void updateWinnablePending() {
+        winnableLabel.setText("Maze is winnable: checking...");
+    }
+
+    // From what the player has observed; NaN when it cannot be worked out
+    public void updateWinChance(double probability) {
+        if (Double.isNaN(probability)) {
+            winChanceLabel.setText("Chance to win: unknown");
+        } else {
+            winChanceLabel.setText(String.format("Chance to win: %.1f%%", probability * 100));
+        }
+    }
+
+    // One-line notices such as a finished save; null clears it
+    public void showMessage(String message) {
+        messageLabel.setText(message == null || message.isEmpty() ? " " : message);
+    }
 }